@@ -0,0 +1,40 @@
+package org.service.inventoryservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "inventory.limiter")
+@Data
+public class ConcurrencyLimiterProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 2;
+
+    private int maxLimit = 200;
+
+    /**
+     * Multiplier applied to the limit when a request is slower than {@link #latencyThreshold}.
+     */
+    private double backoffRatio = 0.9;
+
+    private Duration latencyThreshold = Duration.ofMillis(250);
+
+    /**
+     * Maximum share of the current limit, and of the wait queue, a single SKU may hold, so one hot SKU cannot
+     * starve the rest.
+     */
+    private double perSkuShare = 0.5;
+
+    private int maxQueueSize = 50;
+
+    private Duration maxQueueWait = Duration.ofMillis(100);
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
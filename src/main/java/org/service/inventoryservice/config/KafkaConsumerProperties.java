@@ -0,0 +1,53 @@
+package org.service.inventoryservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "inventory.kafka.parallel")
+@Data
+public class KafkaConsumerProperties {
+
+    /**
+     * When disabled, records are processed on the listener thread one at a time, as before.
+     */
+    private boolean enabled = false;
+
+    private int defaultConcurrency = 4;
+
+    /**
+     * Number of worker lanes per topic; records with the same key always land on the same lane.
+     */
+    private Map<String, Integer> concurrency = new HashMap<>();
+
+    /**
+     * Records dispatched but not yet completed per topic before the listener thread blocks.
+     */
+    private int maxInFlight = 500;
+
+    /**
+     * Attempts per record, including the first, before it is handed to the dead-letter topic.
+     */
+    private int retryAttempts = 3;
+
+    /**
+     * Wait before the first retry; doubled for every further attempt up to retryMaxBackoff.
+     */
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    private Duration retryMaxBackoff = Duration.ofSeconds(5);
+
+    /**
+     * How long a rebalance waits for in-flight records of revoked partitions; keep it well below max.poll.interval.ms.
+     */
+    private Duration revokeTimeout = Duration.ofSeconds(10);
+
+    public int getConcurrency(String topic) {
+        return concurrency.getOrDefault(topic, defaultConcurrency);
+    }
+}
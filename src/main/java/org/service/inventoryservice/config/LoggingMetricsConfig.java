@@ -0,0 +1,43 @@
+package org.service.inventoryservice.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.service.inventoryservice.logging.CallSiteSamplingTurboFilter;
+import org.service.inventoryservice.logging.CountingAsyncAppender;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoggingMetricsConfig {
+
+    @Bean
+    public MeterBinder asyncLoggingMetrics() {
+        return registry -> {
+            LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+            loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders().forEachRemaining(appender -> {
+                if (appender instanceof CountingAsyncAppender asyncAppender) {
+                    Gauge.builder("logging.async.queued", asyncAppender, CountingAsyncAppender::getNumberOfElementsInQueue)
+                            .tag("appender", asyncAppender.getName())
+                            .register(registry);
+                    FunctionCounter.builder("logging.async.dropped", asyncAppender, CountingAsyncAppender::getDropped)
+                            .tag("appender", asyncAppender.getName())
+                            .register(registry);
+                }
+            });
+
+            loggerContext.getTurboFilterList().forEach(filter -> {
+                if (filter instanceof CallSiteSamplingTurboFilter samplingFilter) {
+                    FunctionCounter.builder("logging.sampled.dropped", samplingFilter,
+                                    CallSiteSamplingTurboFilter::getDropped)
+                            .tag("filter", samplingFilter.getName())
+                            .register(registry);
+                }
+            });
+        };
+    }
+}
@@ -1,9 +1,11 @@
 package org.service.inventoryservice.config;
 
+import brave.TracingCustomizer;
 import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.observation.aop.ObservedAspect;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.service.inventoryservice.tracing.TraceSamplingSpanHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
@@ -24,4 +26,18 @@ public class ObservabilityConfig {
     ObservedAspect observedAspect(ObservationRegistry registry) {
         return new ObservedAspect(registry);
     }
+
+    /**
+     * Makes the sampling handler the only one Brave calls and hands it the others, so none of them sees a span
+     * before it is sampled, whatever their order.
+     */
+    @Bean
+    TracingCustomizer traceSamplingCustomizer(TraceSamplingSpanHandler traceSamplingSpanHandler) {
+        return builder -> {
+            traceSamplingSpanHandler.setDelegates(builder.spanHandlers().stream()
+                    .filter(handler -> handler != traceSamplingSpanHandler)
+                    .toList());
+            builder.clearSpanHandlers().addSpanHandler(traceSamplingSpanHandler);
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package org.service.inventoryservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "inventory.stock")
+@Data
+public class StockProperties {
+
+    /**
+     * {@code in-place} updates {@code inventory.quantity} under its version; {@code journal} draws reservations
+     * from per-SKU allotments, appends stock movements and folds them into {@code inventory.quantity} in the
+     * background. Switch modes only with every instance stopped: releases of reservations taken in in-place mode
+     * are not applied to allotments seeded concurrently.
+     */
+    private Mode mode = Mode.IN_PLACE;
+
+    /**
+     * The compactor folds up to the highest movement id created before now minus this grace. Must exceed the
+     * longest transaction that writes movements, so no lower id is still uncommitted when it is folded past.
+     */
+    private Duration compactionGrace = Duration.ofSeconds(30);
+
+    /**
+     * Number of slots each inventory's available stock is split into in journal mode. Concurrent reservations of
+     * one SKU only wait on each other when they draw from the same slot.
+     */
+    private int allotments = 8;
+
+    public boolean isJournal() {
+        return mode == Mode.JOURNAL;
+    }
+
+    public enum Mode {
+        IN_PLACE,
+        JOURNAL
+    }
+}
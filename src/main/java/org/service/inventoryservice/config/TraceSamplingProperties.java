@@ -0,0 +1,53 @@
+package org.service.inventoryservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "inventory.tracing.sampling")
+@Data
+public class TraceSamplingProperties {
+
+    private double defaultRate = 0.1;
+
+    /**
+     * Sampling rate by request URI pattern, e.g. {@code /api/inventory/reserveProducts}.
+     */
+    private Map<String, Double> endpoints = new HashMap<>();
+
+    /**
+     * Sampling rate by consumed Kafka topic.
+     */
+    private Map<String, Double> topics = new HashMap<>();
+
+    /**
+     * Upper bound on traces kept per second by rate sampling; errors and slow traces are not counted.
+     */
+    private int maxTracesPerSecond = 20;
+
+    /**
+     * Traces whose local root span takes longer than this are always kept.
+     */
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    private int maxPendingTraces = 10000;
+
+    /**
+     * Held child spans whose local root has not ended within this are dropped to make room.
+     */
+    private Duration pendingTtl = Duration.ofMinutes(1);
+
+    /**
+     * How long a decision is applied to children that end after their local root.
+     */
+    private Duration decisionTtl = Duration.ofSeconds(30);
+
+    private int maxDecisions = 10000;
+
+    private int maxSpansPerTrace = 256;
+}
@@ -0,0 +1,35 @@
+package org.service.inventoryservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "inventory.warmup")
+@Data
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Connections opened at once to fill the pool before traffic arrives.
+     */
+    private int poolConnections = 10;
+
+    /**
+     * Rounds of hot queries and JSON round trips, enough for the JIT to compile them.
+     */
+    private int iterations = 200;
+
+    /**
+     * Rounds that also list the whole inventory; kept low because each one reads every row.
+     */
+    private int listIterations = 10;
+
+    /**
+     * The first request completing faster than this marks the end of the cold phase.
+     */
+    private Duration fastRequestThreshold = Duration.ofMillis(50);
+}
@@ -4,8 +4,11 @@ import org.service.inventoryservice.dto.InventoryRequest;
 import org.service.inventoryservice.dto.InventoryResponse;
 import org.service.inventoryservice.dto.ReserveRequest;
 import org.service.inventoryservice.exception.NotInStockException;
+import org.service.inventoryservice.exception.OverloadedException;
+import org.service.inventoryservice.limiter.ConcurrencyLimited;
 import org.service.inventoryservice.service.InventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,17 +24,32 @@ public class InventoryController {
     private final InventoryService inventoryService;
 
     @PostMapping("reserveProducts")
+    @ConcurrencyLimited("reserve")
     public ResponseEntity<Boolean> reserveProducts(@RequestBody ReserveRequest reserveRequest) {
         return new ResponseEntity<>(inventoryService.reserveInventory(reserveRequest), HttpStatus.CREATED);
     }
 
+    @PostMapping("orders/{orderNumber}/confirm")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void confirmOrder(@PathVariable("orderNumber") String orderNumber) {
+        inventoryService.confirmOrder(orderNumber);
+    }
+
+    @PostMapping("orders/{orderNumber}/cancel")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelOrder(@PathVariable("orderNumber") String orderNumber) {
+        inventoryService.cancelOrder(orderNumber);
+    }
+
     @GetMapping
+    @ConcurrencyLimited("read")
     @ResponseStatus(HttpStatus.OK)
     public List<InventoryResponse> findAll() {
         return inventoryService.findAll();
     }
 
     @GetMapping("/{skuCode}")
+    @ConcurrencyLimited("read")
     @ResponseStatus(HttpStatus.OK)
     public InventoryResponse findBySkuCode(@PathVariable("skuCode") String skuCode) {
         return inventoryService.findBySkuCode(skuCode);
@@ -47,4 +65,11 @@ public class InventoryController {
     public ResponseEntity<Boolean> catchNotInStockException(NotInStockException e) {
         return new ResponseEntity<>(false, HttpStatus.OK);
     }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Error> catchOverloadedException(OverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(new Error(e.getMessage()));
+    }
 }
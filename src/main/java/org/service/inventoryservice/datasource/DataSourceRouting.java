@@ -0,0 +1,50 @@
+package org.service.inventoryservice.datasource;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Pins read-only work to the primary when it has to see a write that replicas may not have applied yet. Besides the
+ * explicit {@link #onPrimary} scope, a thread that committed a read-write transaction keeps reading from the primary
+ * for the replicas' staleness bound, so a unit of work sees its own writes. Units of work are requests, scheduled
+ * job runs and consumed records; each starts with {@link #reset()}.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> false);
+
+    private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(true);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.set(previous);
+        }
+    }
+
+    /**
+     * Forgets the writes of the previous unit of work handled by this thread, e.g. at the start of a request.
+     */
+    public static void reset() {
+        LAST_WRITE.remove();
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+
+    static void recordWrite() {
+        LAST_WRITE.set(System.nanoTime());
+    }
+
+    static boolean wroteWithin(Duration window) {
+        Long lastWrite = LAST_WRITE.get();
+        return lastWrite != null && System.nanoTime() - lastWrite < window.toNanos();
+    }
+}
@@ -0,0 +1,26 @@
+package org.service.inventoryservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Scopes read-your-writes routing to a single request so pooled servlet threads don't carry it over.
+ */
+public class DataSourceRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        DataSourceRouting.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.reset();
+        }
+    }
+}
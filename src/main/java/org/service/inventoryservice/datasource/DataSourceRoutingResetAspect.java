@@ -0,0 +1,19 @@
+package org.service.inventoryservice.datasource;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+
+/**
+ * Starts every scheduled job run and listener invocation without the writes of whatever the thread ran before, so a
+ * job following another one on the single scheduler thread still reads from replicas.
+ */
+@Aspect
+public class DataSourceRoutingResetAspect {
+
+    @Before("(@annotation(org.springframework.scheduling.annotation.Scheduled) " +
+            "|| @annotation(org.springframework.kafka.annotation.KafkaListener)) " +
+            "&& !within(org.service.inventoryservice.datasource..*)")
+    public void reset() {
+        DataSourceRouting.reset();
+    }
+}
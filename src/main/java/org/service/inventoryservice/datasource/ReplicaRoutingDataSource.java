@@ -0,0 +1,164 @@
+package org.service.inventoryservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to healthy replicas in round-robin order and everything else to the primary. Reads
+ * issued within the staleness bound after a read-write transaction committed on the same thread stay on the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * transaction's read-only flag is known by the time a connection is fetched.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final String PRIMARY_POSITION_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    /**
+     * 0 once the replica has replayed the primary's WAL position sampled just before, so an idle primary doesn't make
+     * an up-to-date replica look stale. Otherwise the time since the last replayed transaction, which keeps growing
+     * when the WAL receiver has stalled or disconnected.
+     */
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, " +
+            Integer.MAX_VALUE + ") END";
+
+    private static final TransactionSynchronization WRITE_TRACKER = new TransactionSynchronization() {
+
+        @Override
+        public void afterCommit() {
+            DataSourceRouting.recordWrite();
+        }
+    };
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Duration maxStaleness;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxStaleness) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxStaleness = maxStaleness;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionSynchronizationManager.registerSynchronization(WRITE_TRACKER);
+            }
+            return PRIMARY;
+        }
+
+        if (DataSourceRouting.isPrimaryForced() || DataSourceRouting.wroteWithin(maxStaleness)) {
+            return PRIMARY;
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+
+        return PRIMARY;
+    }
+
+    /**
+     * Probes every replica and takes it out of rotation when it is unreachable or lags more than the staleness bound.
+     */
+    @Scheduled(fixedDelayString = "${inventory.datasource.routing.health-check-interval:5000}")
+    public void checkReplicas() {
+        String primaryPosition = primaryPosition();
+
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_QUERY)) {
+                statement.setString(1, primaryPosition);
+
+                long lagMillis;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    lagMillis = resultSet.getLong(1);
+                }
+                healthy = lagMillis <= maxStaleness.toMillis();
+
+                if (!healthy) {
+                    log.warn("Replica {} lags {} ms behind primary", replica.name, lagMillis);
+                }
+            } catch (SQLException e) {
+                log.warn("Replica {} is unreachable: {}", replica.name, e.getMessage());
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is now {}", replica.name, healthy ? "in rotation" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    /**
+     * @return the primary's current WAL position, or {@code null} when it can't be read, in which case replicas are
+     * judged by replay time alone
+     */
+    private String primaryPosition() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_POSITION_QUERY)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            log.warn("Could not read the primary's WAL position: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -3,14 +3,22 @@ package org.service.inventoryservice.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
+/**
+ * Updates write only the changed columns, so saving an inventory loaded before a journal compaction doesn't put
+ * back the quantity and position the compactor just folded.
+ */
 @Entity
 @Table(name = "inventory")
+@DynamicUpdate
 @AllArgsConstructor
 @NoArgsConstructor
-@Data
+@Getter
+@Setter
 @Builder
 public class Inventory {
 
@@ -30,9 +38,20 @@ public class Inventory {
     @Column(name = "limit_notification_sent")
     private boolean isLimitNotificationSent;
 
+    /**
+     * Id of the last stock movement folded into {@link #quantity} when running in journal mode.
+     */
+    @Column(name = "journal_position")
+    private Long journalPosition;
+
     @Version
     private Integer version;
 
+    /**
+     * Loaded eagerly: as the inverse side Hibernate can't tell null from a proxy without querying products, so
+     * FetchType.LAZY would be ignored short of bytecode enhancement or sharing the key via @MapsId. Load inventory
+     * through ProductRepository.findWithInventoryBySkuCode to get both in one statement.
+     */
     @OneToOne(mappedBy = "inventory", cascade = CascadeType.ALL)
     private Product product;
 }
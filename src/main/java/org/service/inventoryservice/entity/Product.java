@@ -3,15 +3,17 @@ package org.service.inventoryservice.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "products")
-@Data
+@Getter
+@Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
@@ -27,9 +29,10 @@ public class Product {
 
     private String thumbnailUrl;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private Inventory inventory;
 
     @OneToMany(mappedBy = "product")
+    @Builder.Default
     private List<ProductReservation> productReservations = new ArrayList<>();
 }
\ No newline at end of file
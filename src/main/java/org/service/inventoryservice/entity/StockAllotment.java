@@ -0,0 +1,36 @@
+package org.service.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One slice of an inventory's available stock in journal mode. Reservations draw from a single slot, so concurrent
+ * reservations of the same SKU only contend when they pick the same slot.
+ */
+@Entity
+@Table(name = "stock_allotment",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_allotment_slot", columnNames = {"inventory_id", "slot"}))
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class StockAllotment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Long inventoryId;
+
+    @Column(name = "slot", nullable = false)
+    private Integer slot;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+}
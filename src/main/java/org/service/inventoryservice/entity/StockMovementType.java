@@ -0,0 +1,8 @@
+package org.service.inventoryservice.entity;
+
+public enum StockMovementType {
+    RESERVATION,
+    EXPIRY,
+    CANCELLATION,
+    ADJUSTMENT
+}
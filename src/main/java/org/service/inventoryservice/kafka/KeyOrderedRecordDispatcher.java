@@ -0,0 +1,382 @@
+package org.service.inventoryservice.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.service.inventoryservice.config.KafkaConsumerProperties;
+import org.service.inventoryservice.datasource.DataSourceRouting;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans records of a partition out to per-topic worker lanes chosen by record key, so records with the same key
+ * keep their order while different keys run concurrently. Records are acknowledged as they complete; the
+ * container runs with async acks and commits only up to the highest contiguous completed offset.
+ * <p>
+ * A failing record is retried on its lane with exponential backoff, then handed to the recoverer (dead-letter
+ * topic) and acknowledged only once that succeeds. While the dead-letter topic can't be written, its partition is
+ * paused and the publish retried, so the commit stalls on one partition instead of piling records up behind it.
+ * Registered as the container's rebalance listener so revoked partitions are drained before their offsets are
+ * committed; records still waiting for a retry on a revoked partition give up and are redelivered to its new owner.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KeyOrderedRecordDispatcher implements ConsumerAwareRebalanceListener {
+
+    private final KafkaConsumerProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConsumerRecordRecoverer recoverer;
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listenerEndpointRegistry;
+
+    private final Map<String, TopicLanes> lanesByTopic = new ConcurrentHashMap<>();
+
+    private final Map<TopicPartition, PartitionProgress> progressByPartition = new ConcurrentHashMap<>();
+
+    public void dispatch(ConsumerRecord<?, ?> record, String key, Runnable task, Acknowledgment acknowledgment) {
+        if (!properties.isEnabled()) {
+            task.run();
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        TopicLanes lanes = lanesByTopic.computeIfAbsent(record.topic(), this::createLanes);
+        PartitionProgress progress = progressByPartition.computeIfAbsent(
+                new TopicPartition(record.topic(), record.partition()), tp -> new PartitionProgress());
+
+        try {
+            lanes.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free worker on " + record.topic(), e);
+        }
+
+        lanes.inFlight.incrementAndGet();
+        progress.pending.add(record.offset());
+
+        try {
+            lanes.laneFor(key).execute(() -> {
+                // Lane threads are reused across records; each record is its own unit of work for replica routing
+                DataSourceRouting.reset();
+                try {
+                    if (process(record, key, task, progress)) {
+                        progress.complete(record.offset());
+                        acknowledgment.acknowledge();
+                    } else {
+                        progress.pending.remove(record.offset());
+                    }
+                } finally {
+                    lanes.inFlight.decrementAndGet();
+                    lanes.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Lanes are shut down; the record is neither run nor acknowledged and will be redelivered
+            progress.pending.remove(record.offset());
+            lanes.inFlight.decrementAndGet();
+            lanes.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the task with retries and falls back to the recoverer; returns whether the record may be acknowledged.
+     * A record that is given up is not acknowledged, so its offset, and everything after it, is not committed.
+     */
+    private boolean process(ConsumerRecord<?, ?> record, String key, Runnable task, PartitionProgress progress) {
+        BackOffExecution backOff = retryBackOff().start();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                task.run();
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= properties.getRetryAttempts()) {
+                    return recover(record, key, e, progress);
+                }
+
+                long delay = backOff.nextBackOff();
+                log.warn("Attempt {} of {} failed for record {}-{}@{} with key {}, retrying in {} ms", attempt,
+                        properties.getRetryAttempts(), record.topic(), record.partition(), record.offset(), key,
+                        delay, e);
+
+                if (!awaitRetry(record, progress, delay)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps publishing to the dead-letter topic until it succeeds, with the record's partition paused meanwhile.
+     * Gives up only when the partition is revoked or the lane is interrupted.
+     */
+    private boolean recover(ConsumerRecord<?, ?> record, String key, RuntimeException failure,
+                            PartitionProgress progress) {
+        log.error("Failed to process record {}-{}@{} with key {}, sending it to the dead-letter topic",
+                record.topic(), record.partition(), record.offset(), key, failure);
+
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        BackOffExecution backOff = retryBackOff().start();
+        boolean paused = false;
+
+        try {
+            while (true) {
+                try {
+                    recoverer.accept(record, failure);
+                    failedRecords(record.topic(), "dead_lettered").increment();
+                    return true;
+                } catch (RuntimeException e) {
+                    if (!paused) {
+                        pause(partition, progress);
+                        paused = true;
+                    }
+
+                    long delay = backOff.nextBackOff();
+                    log.error("Could not dead-letter record {}-{}@{}, partition paused, retrying in {} ms",
+                            record.topic(), record.partition(), record.offset(), delay, e);
+
+                    if (!awaitRetry(record, progress, delay)) {
+                        failedRecords(record.topic(), "unrecovered").increment();
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            if (paused) {
+                resume(partition, progress);
+            }
+        }
+    }
+
+    /**
+     * Waits out a retry delay; returns false, giving the record up, if its partition is revoked or the lane is
+     * interrupted meanwhile.
+     */
+    private boolean awaitRetry(ConsumerRecord<?, ?> record, PartitionProgress progress, long delay) {
+        try {
+            if (!progress.awaitRevocation(delay)) {
+                return true;
+            }
+            log.warn("Partition {}-{} revoked, leaving record @{} to be redelivered", record.topic(),
+                    record.partition(), record.offset());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Retries of record {}-{}@{} interrupted, leaving it uncommitted", record.topic(),
+                    record.partition(), record.offset());
+        }
+        return false;
+    }
+
+    /**
+     * Pause requests outlive a rebalance, so every pause is matched by a resume even after the partition moved.
+     */
+    private void pause(TopicPartition partition, PartitionProgress progress) {
+        if (progress.deadLetterBlocked.getAndIncrement() > 0) {
+            return;
+        }
+
+        KafkaListenerEndpointRegistry registry = listenerEndpointRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.getListenerContainers().stream()
+                    .filter(container -> container.getAssignedPartitions() != null
+                            && container.getAssignedPartitions().contains(partition))
+                    .forEach(container -> container.pausePartition(partition));
+        }
+    }
+
+    private void resume(TopicPartition partition, PartitionProgress progress) {
+        if (progress.deadLetterBlocked.decrementAndGet() > 0) {
+            return;
+        }
+
+        KafkaListenerEndpointRegistry registry = listenerEndpointRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.getListenerContainers().forEach(container -> container.resumePartition(partition));
+        }
+    }
+
+    private ExponentialBackOff retryBackOff() {
+        ExponentialBackOff backOff = new ExponentialBackOff(properties.getRetryBackoff().toMillis(), 2.0);
+        backOff.setMaxInterval(properties.getRetryMaxBackoff().toMillis());
+        return backOff;
+    }
+
+    private Counter failedRecords(String topic, String outcome) {
+        return Counter.builder("inventory.kafka.records.failed")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called on the consumer thread before the container commits the revoked partitions: waits for their in-flight
+     * records so the acknowledgements they produce are part of that final commit. Records waiting for a retry stop
+     * waiting right away.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        revoke(partitions);
+
+        long deadline = System.nanoTime() + properties.getRevokeTimeout().toNanos();
+
+        while (hasPending(partitions)) {
+            if (System.nanoTime() >= deadline) {
+                log.warn("Revoking {} with records still in flight after {}; they will be redelivered", partitions,
+                        properties.getRevokeTimeout());
+                return;
+            }
+
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(progressByPartition::remove);
+    }
+
+    /**
+     * Lost partitions can't be committed any more, so there is nothing to wait for.
+     */
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        revoke(partitions);
+        partitions.forEach(progressByPartition::remove);
+    }
+
+    private void revoke(Collection<TopicPartition> partitions) {
+        partitions.stream()
+                .map(progressByPartition::get)
+                .filter(Objects::nonNull)
+                .forEach(PartitionProgress::revoke);
+    }
+
+    private boolean hasPending(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .map(progressByPartition::get)
+                .anyMatch(progress -> progress != null && !progress.pending.isEmpty());
+    }
+
+    private TopicLanes createLanes(String topic) {
+        int concurrency = properties.getConcurrency(topic);
+        TopicLanes lanes = new TopicLanes(concurrency, properties.getMaxInFlight());
+
+        log.info("Processing {} with {} key-ordered worker lanes", topic, concurrency);
+
+        Gauge.builder("inventory.kafka.records.inflight", lanes.inFlight, AtomicInteger::get)
+                .tag("topic", topic)
+                .register(meterRegistry);
+        Gauge.builder("inventory.kafka.commit.lag", this, dispatcher -> dispatcher.commitLag(topic))
+                .tag("topic", topic)
+                .description("Completed records waiting for an earlier offset before they can be committed")
+                .register(meterRegistry);
+
+        return lanes;
+    }
+
+    private double commitLag(String topic) {
+        return progressByPartition.entrySet().stream()
+                .filter(entry -> entry.getKey().topic().equals(topic))
+                .mapToLong(entry -> entry.getValue().commitLag())
+                .sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanesByTopic.values().forEach(TopicLanes::shutdown);
+    }
+
+    private static final class TopicLanes {
+
+        private final ExecutorService[] lanes;
+
+        private final Semaphore permits;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private TopicLanes(int concurrency, int maxInFlight) {
+            this.lanes = new ExecutorService[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                lanes[i] = Executors.newSingleThreadExecutor();
+            }
+            this.permits = new Semaphore(maxInFlight);
+        }
+
+        private ExecutorService laneFor(String key) {
+            return lanes[key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length)];
+        }
+
+        private void shutdown() {
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+        }
+    }
+
+    private static final class PartitionProgress {
+
+        private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+        private final AtomicLong highestCompleted = new AtomicLong(-1);
+
+        private final CountDownLatch revoked = new CountDownLatch(1);
+
+        private final AtomicInteger deadLetterBlocked = new AtomicInteger();
+
+        private void complete(long offset) {
+            pending.remove(offset);
+            highestCompleted.accumulateAndGet(offset, Math::max);
+        }
+
+        private void revoke() {
+            revoked.countDown();
+        }
+
+        private boolean awaitRevocation(long millis) throws InterruptedException {
+            return revoked.await(millis, TimeUnit.MILLISECONDS);
+        }
+
+        private long commitLag() {
+            Long lowestPending = pending.ceiling(Long.MIN_VALUE);
+            if (lowestPending == null) {
+                return 0;
+            }
+            return Math.max(0, highestCompleted.get() - lowestPending);
+        }
+    }
+}
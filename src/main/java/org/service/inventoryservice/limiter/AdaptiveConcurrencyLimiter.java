@@ -0,0 +1,146 @@
+package org.service.inventoryservice.limiter;
+
+import org.service.inventoryservice.config.ConcurrencyLimiterProperties;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limiter. The limit grows by one while requests complete under the latency threshold
+ * and the limiter is actually in use, and shrinks multiplicatively as soon as a request is slower.
+ * Each SKU may hold at most a fixed share of the current limit, and of the wait queue, so a hot SKU waiting on
+ * its own share can't fill the queue and shed requests for every other SKU.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final ConcurrencyLimiterProperties properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private final Map<String, Integer> inFlightBySku = new HashMap<>();
+
+    private final Map<String, Integer> queuedBySku = new HashMap<>();
+
+    private double limit;
+
+    private int inFlight;
+
+    private int queued;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimiterProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Acquires a permit for the given SKUs, waiting in the bounded queue if needed.
+     *
+     * @return the permit, or {@code null} if the request has to be shed
+     */
+    public Permit tryAcquire(Collection<String> skuCodes) throws InterruptedException {
+        long remaining = properties.getMaxQueueWait().toNanos();
+
+        lock.lock();
+        try {
+            while (!canAcquire(skuCodes)) {
+                if (queued >= properties.getMaxQueueSize() || remaining <= 0 || !canQueue(skuCodes)) {
+                    return null;
+                }
+                queued++;
+                skuCodes.forEach(skuCode -> queuedBySku.merge(skuCode, 1, Integer::sum));
+                try {
+                    remaining = released.awaitNanos(remaining);
+                } finally {
+                    queued--;
+                    skuCodes.forEach(skuCode -> queuedBySku.computeIfPresent(skuCode, (k, v) -> v > 1 ? v - 1 : null));
+                }
+            }
+
+            inFlight++;
+            skuCodes.forEach(skuCode -> inFlightBySku.merge(skuCode, 1, Integer::sum));
+
+            return new Permit(skuCodes, System.nanoTime(), inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Permit permit) {
+        long latency = System.nanoTime() - permit.startNanos;
+
+        lock.lock();
+        try {
+            inFlight--;
+            permit.skuCodes.forEach(skuCode -> inFlightBySku.computeIfPresent(skuCode, (k, v) -> v > 1 ? v - 1 : null));
+
+            if (latency > properties.getLatencyThreshold().toNanos()) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+            } else if (permit.inFlightAtStart * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1);
+            }
+
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAcquire(Collection<String> skuCodes) {
+        int currentLimit = getLimit();
+        if (inFlight >= currentLimit) {
+            return false;
+        }
+
+        int maxPerSku = Math.max(1, (int) Math.ceil(currentLimit * properties.getPerSkuShare()));
+        for (String skuCode : skuCodes) {
+            if (inFlightBySku.getOrDefault(skuCode, 0) >= maxPerSku) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean canQueue(Collection<String> skuCodes) {
+        int maxPerSku = Math.max(1, (int) Math.ceil(properties.getMaxQueueSize() * properties.getPerSkuShare()));
+        for (String skuCode : skuCodes) {
+            if (queuedBySku.getOrDefault(skuCode, 0) >= maxPerSku) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public static final class Permit {
+
+        private final Collection<String> skuCodes;
+
+        private final long startNanos;
+
+        private final int inFlightAtStart;
+
+        private Permit(Collection<String> skuCodes, long startNanos, int inFlightAtStart) {
+            this.skuCodes = skuCodes;
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+    }
+}
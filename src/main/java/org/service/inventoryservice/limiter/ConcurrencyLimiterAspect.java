@@ -0,0 +1,103 @@
+package org.service.inventoryservice.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.service.inventoryservice.config.ConcurrencyLimiterProperties;
+import org.service.inventoryservice.dto.ProductDto;
+import org.service.inventoryservice.dto.ReserveRequest;
+import org.service.inventoryservice.exception.OverloadedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimiterAspect {
+
+    private final ConcurrencyLimiterProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+    @Around("@annotation(concurrencyLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint, ConcurrencyLimited concurrencyLimited) throws Throwable {
+        if (!properties.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        String name = concurrencyLimited.value();
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(name, this::createLimiter);
+
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.tryAcquire(skuCodes(joinPoint.getArgs()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+
+        if (permit == null) {
+            shedCounters.get(name).increment();
+            log.warn("Shedding request on {} limiter, limit {}", name, limiter.getLimit());
+
+            throw new OverloadedException("Too many concurrent requests", properties.getRetryAfter());
+        }
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release(permit);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String name) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        Gauge.builder("inventory.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("inventory.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("inventory.limiter.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        shedCounters.put(name, Counter.builder("inventory.limiter.shed")
+                .tag("limiter", name)
+                .register(meterRegistry));
+
+        return limiter;
+    }
+
+    private List<String> skuCodes(Object[] args) {
+        Set<String> skuCodes = new LinkedHashSet<>();
+
+        for (Object arg : args) {
+            if (arg instanceof ReserveRequest reserveRequest) {
+                reserveRequest.products().stream()
+                        .map(ProductDto::skuCode)
+                        .forEach(skuCodes::add);
+            } else if (arg instanceof String skuCode) {
+                skuCodes.add(skuCode);
+            }
+        }
+
+        return new ArrayList<>(skuCodes);
+    }
+}
@@ -0,0 +1,87 @@
+package org.service.inventoryservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits INFO messages of the configured logger per call site, identified by the message format string.
+ * Each call site may log {@code ratePerSecond} messages per second; beyond that only every
+ * {@code sampleEvery}-th message gets through. Runs before the message is formatted, so dropped messages
+ * cost almost nothing.
+ */
+public class CallSiteSamplingTurboFilter extends TurboFilter {
+
+    private final Map<String, CallSite> callSites = new ConcurrentHashMap<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private String loggerName;
+
+    private int ratePerSecond = 50;
+
+    private int sampleEvery = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || level != Level.INFO || !logger.getName().startsWith(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (callSites.computeIfAbsent(format, key -> new CallSite()).tryAcquire(ratePerSecond, sampleEvery)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null) {
+            addError("No loggerName set for " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setRatePerSecond(int ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    private static final class CallSite {
+
+        private long windowStart;
+
+        private long count;
+
+        private synchronized boolean tryAcquire(int ratePerSecond, int sampleEvery) {
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= 1000) {
+                windowStart = now;
+                count = 0;
+            }
+
+            count++;
+            return count <= ratePerSecond || (count - ratePerSecond) % sampleEvery == 0;
+        }
+    }
+}
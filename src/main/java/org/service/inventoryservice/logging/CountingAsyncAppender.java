@@ -0,0 +1,32 @@
+package org.service.inventoryservice.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AsyncAppender} that keeps count of the events it drops. Below the discarding threshold INFO and lower
+ * events are dropped first; once the queue is full everything is dropped instead of blocking the caller.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    protected void append(ILoggingEvent eventObject) {
+        int remainingCapacity = getRemainingCapacity();
+
+        if ((remainingCapacity < getDiscardingThreshold() && isDiscardable(eventObject))
+                || (isNeverBlock() && remainingCapacity == 0)) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        super.append(eventObject);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -12,5 +12,7 @@ public interface InventoryMapper {
 
     InventoryResponse map(Inventory inventory);
 
+    InventoryResponse map(Inventory inventory, Integer quantity);
+
     List<InventoryResponse> map(List<Inventory> inventoryList);
 }
@@ -21,8 +21,13 @@ public class ImventoryMapperImpl implements InventoryMapper {
 
     @Override
     public InventoryResponse map(Inventory inventory) {
+        return map(inventory, inventory.getQuantity());
+    }
+
+    @Override
+    public InventoryResponse map(Inventory inventory, Integer quantity) {
         return new InventoryResponse(inventory.getId(), inventory.getProduct().getSkuCode(), inventory.getProduct().getName(),
-                inventory.getProduct().getThumbnailUrl(), inventory.getQuantity(), inventory.getLimit());
+                inventory.getProduct().getThumbnailUrl(), quantity, inventory.getLimit());
     }
 
     @Override
@@ -1,20 +1,75 @@
 package org.service.inventoryservice.repository;
 
+import org.service.inventoryservice.dto.InventoryResponse;
 import org.service.inventoryservice.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
+    /**
+     * Snapshot quantity plus the stock movements not yet compacted into it. Only journal mode has a tail, so the
+     * in-place variants read the snapshot alone and skip the correlated subquery.
+     */
+    String JOURNAL_QUANTITY = "CAST(i.quantity + COALESCE((SELECT SUM(m.quantity) FROM StockMovement m " +
+            "WHERE m.inventoryId = i.id AND m.id > COALESCE(i.journalPosition, 0)), 0) AS Integer)";
+
+    String RESPONSE = "SELECT new org.service.inventoryservice.dto.InventoryResponse(i.id, p.skuCode, p.name, " +
+            "p.thumbnailUrl, ";
+
+    String LIMIT_EXCEEDED = "SELECT i.id AS id, p.skuCode AS skuCode, ";
+
+    interface LimitExceeded {
+
+        Long getId();
+
+        String getSkuCode();
+
+        Integer getQuantity();
+    }
+
     @Query("SELECT i.quantity FROM Inventory i " +
             "JOIN Product p ON p.inventory.id = i.id " +
             "WHERE p.skuCode = :skuCode")
     Integer countProductsInStock(@Param("skuCode") String skuCode);
 
     Optional<Inventory> findByProductSkuCode(String skuCode);
+
+    @Query(RESPONSE + "i.quantity, i.limit) FROM Product p JOIN p.inventory i")
+    List<InventoryResponse> findAllResponses();
+
+    @Query(RESPONSE + JOURNAL_QUANTITY + ", i.limit) FROM Product p JOIN p.inventory i")
+    List<InventoryResponse> findAllJournalResponses();
+
+    @Query(RESPONSE + "i.quantity, i.limit) FROM Product p JOIN p.inventory i WHERE p.skuCode = :skuCode")
+    Optional<InventoryResponse> findResponseBySkuCode(@Param("skuCode") String skuCode);
+
+    @Query(RESPONSE + JOURNAL_QUANTITY + ", i.limit) FROM Product p JOIN p.inventory i WHERE p.skuCode = :skuCode")
+    Optional<InventoryResponse> findJournalResponseBySkuCode(@Param("skuCode") String skuCode);
+
+    /**
+     * Read-only so the scan is routed to a replica; declared queries don't inherit the repository's read-only default.
+     */
+    @Transactional(readOnly = true)
+    @Query(LIMIT_EXCEEDED + "i.quantity AS quantity FROM Product p JOIN p.inventory i " +
+            "WHERE i.isLimitNotificationSent = false AND i.quantity <= i.limit")
+    List<LimitExceeded> findLimitExceeded();
+
+    @Transactional(readOnly = true)
+    @Query(LIMIT_EXCEEDED + JOURNAL_QUANTITY + " AS quantity FROM Product p JOIN p.inventory i " +
+            "WHERE i.isLimitNotificationSent = false AND " + JOURNAL_QUANTITY + " <= i.limit")
+    List<LimitExceeded> findJournalLimitExceeded();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Inventory i SET i.isLimitNotificationSent = true, i.version = i.version + 1 WHERE i.id = :id")
+    int markLimitNotificationSent(@Param("id") Long id);
 }
@@ -2,6 +2,8 @@ package org.service.inventoryservice.repository;
 
 import org.service.inventoryservice.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,7 @@ import java.util.Optional;
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findBySkuCode(String skuCode);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.inventory WHERE p.skuCode = :skuCode")
+    Optional<Product> findWithInventoryBySkuCode(@Param("skuCode") String skuCode);
 }
@@ -4,6 +4,8 @@ import jakarta.transaction.Transactional;
 import org.service.inventoryservice.entity.ProductReservation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -14,7 +16,37 @@ public interface ProductReservationRepository extends JpaRepository<ProductReser
 
     @Modifying
     @Transactional
-    void deleteAllByOrderNumber(String orderNumber);
+    @Query("DELETE FROM ProductReservation r WHERE r.orderNumber = :orderNumber")
+    int confirmOrder(@Param("orderNumber") String orderNumber);
 
-    List<ProductReservation> findAllByReservationUntilDateLessThan(LocalDateTime localDateTime);
+    /**
+     * Releases all reservations of the order and returns their quantities to stock, summed per product,
+     * in one statement. Bumps the inventory version so concurrent entity updates fail their optimistic lock.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "WITH released AS (" +
+            "DELETE FROM product_reservation WHERE order_number = :orderNumber RETURNING product_id, quantity), " +
+            "totals AS (SELECT product_id, SUM(quantity) AS quantity FROM released GROUP BY product_id) " +
+            "UPDATE inventory i SET quantity = i.quantity + t.quantity, version = i.version + 1 " +
+            "FROM products p JOIN totals t ON t.product_id = p.id " +
+            "WHERE p.inventory_id = i.id", nativeQuery = true)
+    int cancelOrder(@Param("orderNumber") String orderNumber);
+
+    /**
+     * Releases every reservation expired before {@code now} and returns the quantities to stock in one statement,
+     * so only rows this statement actually deleted are restored even if the order is confirmed or cancelled
+     * concurrently.
+     *
+     * @return the affected order numbers
+     */
+    @Transactional
+    @Query(value = "WITH expired AS (" +
+            "DELETE FROM product_reservation WHERE reservation_until_date < :now " +
+            "RETURNING order_number, product_id, quantity), " +
+            "totals AS (SELECT product_id, SUM(quantity) AS quantity FROM expired GROUP BY product_id), " +
+            "restored AS (UPDATE inventory i SET quantity = i.quantity + t.quantity, version = i.version + 1 " +
+            "FROM products p JOIN totals t ON t.product_id = p.id WHERE p.inventory_id = i.id) " +
+            "SELECT DISTINCT order_number FROM expired", nativeQuery = true)
+    List<String> expireReservations(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,94 @@
+package org.service.inventoryservice.repository;
+
+import jakarta.transaction.Transactional;
+import org.service.inventoryservice.entity.StockAllotment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockAllotmentRepository extends JpaRepository<StockAllotment, Long> {
+
+    /**
+     * Splits the snapshot plus un-compacted tail of every inventory without allotments into {@code slots} rows,
+     * all stock starting in slot 0. A concurrent seed of the same inventory waits on the unique key and then
+     * inserts nothing.
+     */
+    String SEED = "INSERT INTO stock_allotment (inventory_id, slot, quantity) " +
+            "SELECT i.id, s.slot, CASE WHEN s.slot = 0 THEN COALESCE(i.quantity, 0) + " +
+            "COALESCE((SELECT SUM(m.quantity) FROM stock_movement m " +
+            "WHERE m.inventory_id = i.id AND m.id > COALESCE(i.journal_position, 0)), 0) ELSE 0 END " +
+            "FROM inventory i CROSS JOIN generate_series(0, :slots - 1) AS s(slot) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM stock_allotment a WHERE a.inventory_id = i.id) ";
+
+    /**
+     * Spreads the quantity evenly over the locked slots, the remainder going to the lowest slots.
+     */
+    String SPREAD = "UPDATE stock_allotment a SET quantity = s.total / s.slots + " +
+            "CASE WHEN s.position < s.total % s.slots THEN 1 ELSE 0 END FROM spread s WHERE a.id = s.id";
+
+    boolean existsByInventoryId(Long inventoryId);
+
+    @Modifying
+    @Query(value = SEED + "AND i.id = :inventoryId ON CONFLICT (inventory_id, slot) DO NOTHING", nativeQuery = true)
+    int seed(@Param("inventoryId") Long inventoryId, @Param("slots") int slots);
+
+    @Modifying
+    @Transactional
+    @Query(value = SEED + "ON CONFLICT (inventory_id, slot) DO NOTHING", nativeQuery = true)
+    int seedMissing(@Param("slots") int slots);
+
+    /**
+     * Draws the quantity from one slot if that slot alone covers it. Only that slot's row is locked.
+     */
+    @Modifying
+    @Query(value = "UPDATE stock_allotment SET quantity = quantity - :quantity " +
+            "WHERE inventory_id = :inventoryId AND slot = :slot AND quantity >= :quantity", nativeQuery = true)
+    int take(@Param("inventoryId") Long inventoryId, @Param("slot") int slot, @Param("quantity") int quantity);
+
+    /**
+     * Locks all slots of the inventory in slot order and draws the quantity across them, lowest slots first, if
+     * their total covers it.
+     *
+     * @return the number of slots drawn from; 0 if stock is short or the inventory has no allotments
+     */
+    @Modifying
+    @Query(value = "WITH locked AS (SELECT id, slot, quantity FROM stock_allotment " +
+            "WHERE inventory_id = :inventoryId ORDER BY slot FOR UPDATE), " +
+            "drawn AS (SELECT id, quantity, SUM(quantity) OVER (ORDER BY slot) - quantity AS before, " +
+            "SUM(quantity) OVER () AS total FROM locked WHERE quantity > 0) " +
+            "UPDATE stock_allotment a SET quantity = a.quantity - LEAST(d.quantity, :quantity - d.before) " +
+            "FROM drawn d WHERE a.id = d.id AND d.total >= :quantity AND d.before < :quantity", nativeQuery = true)
+    int drain(@Param("inventoryId") Long inventoryId, @Param("quantity") int quantity);
+
+    /**
+     * Locks all slots of the inventory and sets their total to {@code quantity}.
+     *
+     * @return the total before the adjustment
+     */
+    @Query(value = "WITH locked AS (SELECT id, slot, quantity FROM stock_allotment " +
+            "WHERE inventory_id = :inventoryId ORDER BY slot FOR UPDATE), " +
+            "spread AS (SELECT id, ROW_NUMBER() OVER (ORDER BY slot) - 1 AS position, COUNT(*) OVER () AS slots, " +
+            "CAST(:quantity AS bigint) AS total FROM locked), " +
+            "adjusted AS (" + SPREAD + ") " +
+            "SELECT CAST(COALESCE(SUM(quantity), 0) AS integer) FROM locked", nativeQuery = true)
+    int adjust(@Param("inventoryId") Long inventoryId, @Param("quantity") int quantity);
+
+    /**
+     * Evens out the slots of every inventory whose slots differ by more than one unit, so draws keep succeeding
+     * on a single slot until stock is nearly gone. Totals are read from the locked rows, not the snapshot.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH skewed AS (SELECT inventory_id FROM stock_allotment GROUP BY inventory_id " +
+            "HAVING MAX(quantity) - MIN(quantity) > 1), " +
+            "locked AS (SELECT a.id, a.inventory_id, a.slot, a.quantity FROM stock_allotment a " +
+            "JOIN skewed k ON k.inventory_id = a.inventory_id ORDER BY a.inventory_id, a.slot FOR UPDATE OF a), " +
+            "spread AS (SELECT id, ROW_NUMBER() OVER (PARTITION BY inventory_id ORDER BY slot) - 1 AS position, " +
+            "COUNT(*) OVER (PARTITION BY inventory_id) AS slots, " +
+            "SUM(quantity) OVER (PARTITION BY inventory_id) AS total FROM locked) " +
+            SPREAD, nativeQuery = true)
+    int rebalance();
+}
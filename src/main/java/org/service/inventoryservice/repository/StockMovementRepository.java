@@ -0,0 +1,80 @@
+package org.service.inventoryservice.repository;
+
+import jakarta.transaction.Transactional;
+import org.service.inventoryservice.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Releases the order's reservations, returns their stock to slot 0 of each inventory's allotments and appends
+     * the matching CANCELLATION movements in one statement.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH released AS (" +
+            "DELETE FROM product_reservation WHERE order_number = :orderNumber RETURNING product_id, quantity), " +
+            "totals AS (SELECT p.inventory_id, SUM(r.quantity) AS quantity " +
+            "FROM released r JOIN products p ON p.id = r.product_id GROUP BY p.inventory_id), " +
+            "restored AS (UPDATE stock_allotment a SET quantity = a.quantity + t.quantity " +
+            "FROM totals t WHERE a.inventory_id = t.inventory_id AND a.slot = 0) " +
+            "INSERT INTO stock_movement (inventory_id, quantity, type, order_number, created_at) " +
+            "SELECT inventory_id, quantity, 'CANCELLATION', :orderNumber, :createdAt FROM totals", nativeQuery = true)
+    int cancelOrder(@Param("orderNumber") String orderNumber, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Releases every reservation expired before {@code now}, returns its stock to slot 0 of the allotments and
+     * appends the matching EXPIRY movements in one statement, so stock comes back only for rows this statement
+     * actually deleted.
+     *
+     * @return the affected order numbers
+     */
+    @Transactional
+    @Query(value = "WITH expired AS (" +
+            "DELETE FROM product_reservation WHERE reservation_until_date < :now " +
+            "RETURNING order_number, product_id, quantity), " +
+            "lines AS (SELECT p.inventory_id, e.order_number, SUM(e.quantity) AS quantity " +
+            "FROM expired e JOIN products p ON p.id = e.product_id GROUP BY p.inventory_id, e.order_number), " +
+            "restored AS (UPDATE stock_allotment a SET quantity = a.quantity + t.quantity " +
+            "FROM (SELECT inventory_id, SUM(quantity) AS quantity FROM lines GROUP BY inventory_id) t " +
+            "WHERE a.inventory_id = t.inventory_id AND a.slot = 0), " +
+            "recorded AS (INSERT INTO stock_movement (inventory_id, quantity, type, order_number, created_at) " +
+            "SELECT inventory_id, quantity, 'EXPIRY', order_number, :now FROM lines) " +
+            "SELECT DISTINCT order_number FROM expired", nativeQuery = true)
+    List<String> expireReservations(@Param("now") LocalDateTime now);
+
+    /**
+     * Makes sure only one instance runs the compactor at a time; released when the transaction ends.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('stock_movement_compaction'))", nativeQuery = true)
+    boolean tryLockForCompaction();
+
+    @Query("SELECT MAX(m.id) FROM StockMovement m WHERE m.createdAt < :before")
+    Long findCompactionWatermark(@Param("before") LocalDateTime before);
+
+    /**
+     * Folds every movement in {@code (journal_position, watermark]} into the inventory snapshot and advances its
+     * position. Rows whose position moved since the subquery's snapshot are skipped, so a movement is never folded
+     * twice. Movements are kept for audit. The version is left alone: entity updates don't write these columns, and
+     * bumping it would fail a concurrent admin update on its optimistic lock.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE inventory i SET quantity = i.quantity + t.delta, journal_position = t.position " +
+            "FROM (SELECT m.inventory_id, SUM(m.quantity) AS delta, MAX(m.id) AS position, " +
+            "COALESCE(inv.journal_position, 0) AS previous_position " +
+            "FROM stock_movement m JOIN inventory inv ON inv.id = m.inventory_id " +
+            "WHERE m.id > COALESCE(inv.journal_position, 0) AND m.id <= :watermark " +
+            "GROUP BY m.inventory_id, inv.journal_position) t " +
+            "WHERE i.id = t.inventory_id AND COALESCE(i.journal_position, 0) = t.previous_position",
+            nativeQuery = true)
+    int compact(@Param("watermark") Long watermark);
+}
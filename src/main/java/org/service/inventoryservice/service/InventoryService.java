@@ -6,6 +6,7 @@ import org.service.inventoryservice.dto.InventoryResponse;
 import org.service.inventoryservice.dto.ReserveRequest;
 import org.service.inventoryservice.event.PaymentEvent;
 import org.service.inventoryservice.event.ProductEvent;
+import org.springframework.kafka.support.Acknowledgment;
 
 import java.util.List;
 
@@ -13,13 +14,17 @@ public interface InventoryService {
 
     boolean reserveInventory(ReserveRequest reserveRequest);
 
+    void confirmOrder(String orderNumber);
+
+    void cancelOrder(String orderNumber);
+
     InventoryResponse update(Long id, InventoryRequest inventoryRequest);
 
     List<InventoryResponse> findAll();
 
     InventoryResponse findBySkuCode(String skuCode);
 
-    void listen(ConsumerRecord<String, String> record);
+    void listen(ConsumerRecord<String, String> record, Acknowledgment acknowledgment);
 
     void cancelReservation();
 }
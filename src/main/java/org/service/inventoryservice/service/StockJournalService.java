@@ -0,0 +1,32 @@
+package org.service.inventoryservice.service;
+
+import org.service.inventoryservice.entity.StockMovementType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockJournalService {
+
+    /**
+     * Draws the quantity from the inventory's allotments and appends the reservation. Only the slots drawn from are
+     * locked, so concurrent reservations of one SKU rarely wait on each other; a caller reserving several
+     * inventories must do so in ascending id order.
+     */
+    boolean reserve(Long inventoryId, int quantity, String orderNumber);
+
+    /**
+     * Sets the inventory's available stock and appends the difference as an adjustment.
+     */
+    void adjust(Long inventoryId, int quantity);
+
+    void record(Long inventoryId, int quantity, StockMovementType type, String orderNumber);
+
+    int cancelOrder(String orderNumber);
+
+    /**
+     * @return order numbers whose expired reservations were released
+     */
+    List<String> expireReservations(LocalDateTime now);
+
+    void compact();
+}
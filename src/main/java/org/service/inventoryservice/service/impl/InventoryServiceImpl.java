@@ -3,9 +3,9 @@ package org.service.inventoryservice.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.OptimisticLockException;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.service.inventoryservice.config.StockProperties;
 import org.service.inventoryservice.dto.InventoryRequest;
 import org.service.inventoryservice.dto.InventoryResponse;
 import org.service.inventoryservice.dto.ProductDto;
@@ -18,6 +18,7 @@ import org.service.inventoryservice.event.OrderCancelEvent;
 import org.service.inventoryservice.event.PaymentEvent;
 import org.service.inventoryservice.event.ProductEvent;
 import org.service.inventoryservice.exception.NotInStockException;
+import org.service.inventoryservice.kafka.KeyOrderedRecordDispatcher;
 import org.service.inventoryservice.mapper.InventoryMapper;
 import org.service.inventoryservice.mapper.ProductMapper;
 import org.service.inventoryservice.repository.InventoryRepository;
@@ -25,14 +26,20 @@ import lombok.RequiredArgsConstructor;
 import org.service.inventoryservice.repository.ProductRepository;
 import org.service.inventoryservice.repository.ProductReservationRepository;
 import org.service.inventoryservice.service.InventoryService;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.service.inventoryservice.service.StockJournalService;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
@@ -51,19 +58,33 @@ public class InventoryServiceImpl implements InventoryService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    private final KeyOrderedRecordDispatcher recordDispatcher;
+
+    private final StockJournalService stockJournalService;
+
+    private final StockProperties stockProperties;
+
     @Transactional
     public boolean reserveInventory(ReserveRequest reserveRequest) {
         log.info("Reserving inventory for order {}", reserveRequest.orderNumber());
 
+        List<Product> products = new ArrayList<>();
         for (ProductDto productDto : reserveRequest.products()) {
             log.info("Processing product with SKU: {}", productDto.skuCode());
 
-            Product product = productRepository.findBySkuCode(productDto.skuCode())
-                    .orElseThrow(() -> new NotInStockException("Product not found"));
+            products.add(productRepository.findWithInventoryBySkuCode(productDto.skuCode())
+                    .orElseThrow(() -> new NotInStockException("Product not found")));
 
             log.info("Product {} found", productDto.skuCode());
+        }
 
-            boolean success = reserveProductInventory(productDto, reserveRequest.orderNumber(), product);
+        if (stockProperties.isJournal()) {
+            return reserveFromJournal(reserveRequest, products);
+        }
+
+        for (int i = 0; i < products.size(); i++) {
+            boolean success = reserveProductInventory(reserveRequest.products().get(i), reserveRequest.orderNumber(),
+                    products.get(i));
             if (!success) {
                 return false;
             }
@@ -79,7 +100,7 @@ public class InventoryServiceImpl implements InventoryService {
 
         while (attempt < maxRetries) {
             try {
-                Inventory inventory = inventoryRepository.findByProductSkuCode(productDto.skuCode())
+                Inventory inventory = inventoryRepository.findById(product.getInventory().getId())
                         .orElseThrow(() -> new NotInStockException("Inventory not found"));
 
                 log.info("Inventory found for SKU: {}", productDto.skuCode());
@@ -92,11 +113,7 @@ public class InventoryServiceImpl implements InventoryService {
                 inventory.setQuantity(inventory.getQuantity() - productDto.quantity());
                 inventoryRepository.save(inventory);
 
-                ProductReservation productReservation = productMapper.map(productDto, orderNumber);
-                productReservation.setProduct(product);
-                product.getProductReservations().add(productReservation);
-                productReservation.setReservationUntilDate(LocalDateTime.now().plusMinutes(10));
-                productReservationRepository.save(productReservation);
+                saveReservation(productDto, orderNumber, product);
 
                 log.info("Reserved {} units of SKU: {}", productDto.quantity(), productDto.skuCode());
                 return true;
@@ -113,70 +130,82 @@ public class InventoryServiceImpl implements InventoryService {
         return false;
     }
 
-    private void addQuantityToInventory(String skuCode, Integer quantity) {
-        final int MAX_RETRIES = 3;
-        int attempt = 0;
-
-        log.info("Adding {} units to inventory for SKU: {}", quantity, skuCode);
-
-        while (attempt < MAX_RETRIES) {
-            try {
-                Inventory inventory = inventoryRepository.findByProductSkuCode(skuCode).orElseThrow(
-                        () -> new RuntimeException("Inventory not found"));
-
-                log.info("Inventory found for SKU: {}", skuCode);
-
-                inventory.setQuantity(inventory.getQuantity() + quantity);
-
-                inventoryRepository.save(inventory);
-
-                log.info("Inventory updated successfully for SKU: {}", skuCode);
-
-                break;
-
-            } catch (OptimisticLockingFailureException e) {
-                attempt++;
-
-                log.warn("Optimistic locking failure on attempt {} for SKU: {}", attempt, skuCode);
+    /**
+     * Draws once per inventory, in ascending inventory id, so concurrent orders never wait on each other's
+     * allotment slots in a cycle.
+     */
+    private boolean reserveFromJournal(ReserveRequest reserveRequest, List<Product> products) {
+        Map<Long, List<Integer>> linesByInventory = new TreeMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            linesByInventory.computeIfAbsent(products.get(i).getInventory().getId(), id -> new ArrayList<>()).add(i);
+        }
 
-                if (attempt >= MAX_RETRIES) {
-                    log.error("Failed to update inventory due to concurrent modifications for SKU: {}", skuCode, e);
+        for (Map.Entry<Long, List<Integer>> entry : linesByInventory.entrySet()) {
+            List<ProductDto> lines = entry.getValue().stream()
+                    .map(reserveRequest.products()::get)
+                    .toList();
+            int quantity = lines.stream().mapToInt(ProductDto::quantity).sum();
 
-                    throw new RuntimeException("Failed to update inventory due to concurrent modifications for SKU: " + skuCode, e);
-                }
+            if (!stockJournalService.reserve(entry.getKey(), quantity, reserveRequest.orderNumber())) {
+                log.warn("Not enough stock for SKU: {}", lines.get(0).skuCode());
+                return false;
+            }
 
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                }
+            for (int i : entry.getValue()) {
+                saveReservation(reserveRequest.products().get(i), reserveRequest.orderNumber(), products.get(i));
+                log.info("Reserved {} units of SKU: {}", reserveRequest.products().get(i).quantity(),
+                        reserveRequest.products().get(i).skuCode());
             }
         }
+
+        log.info("Inventory successfully reserved for order {}", reserveRequest.orderNumber());
+        return true;
+    }
+
+    private void saveReservation(ProductDto productDto, String orderNumber, Product product) {
+        ProductReservation productReservation = productMapper.map(productDto, orderNumber);
+        productReservation.setProduct(product);
+        productReservation.setReservationUntilDate(LocalDateTime.now().plusMinutes(10));
+        productReservationRepository.save(productReservation);
     }
 
     @Scheduled(fixedRate = 60000)
     public void cancelReservation() {
         log.info("Checking for expired product reservations");
 
-        List<ProductReservation> productReservations =
-                productReservationRepository.findAllByReservationUntilDateLessThan(LocalDateTime.now());
-
-        for (ProductReservation productReservation : productReservations) {
-            productReservationRepository.delete(productReservation);
-            log.info("Canceled reservation for order {}", productReservation.getOrderNumber());
+        LocalDateTime now = LocalDateTime.now();
+        List<String> orderNumbers = stockProperties.isJournal()
+                ? stockJournalService.expireReservations(now)
+                : productReservationRepository.expireReservations(now);
 
-            addQuantityToInventory(productReservation.getProduct().getSkuCode(), productReservation.getQuantity());
-            log.info("Restored {} units to inventory for SKU: {}", productReservation.getQuantity(),
-                    productReservation.getProduct().getSkuCode());
-
-            String orderNumber = productReservation.getOrderNumber();
+        for (String orderNumber : orderNumbers) {
+            log.info("Canceled expired reservations for order {}", orderNumber);
 
             kafkaTemplate.send("order-cancel-events", new OrderCancelEvent(orderNumber));
-            log.info("Sent order cancel event for order {}", productReservation.getOrderNumber());
+            log.info("Sent order cancel event for order {}", orderNumber);
         }
     }
 
     @Override
+    @Transactional
+    public void confirmOrder(String orderNumber) {
+        int confirmed = productReservationRepository.confirmOrder(orderNumber);
+
+        log.info("Confirmed {} reservations for order {}", confirmed, orderNumber);
+    }
+
+    @Override
+    @Transactional
+    public void cancelOrder(String orderNumber) {
+        int restored = stockProperties.isJournal()
+                ? stockJournalService.cancelOrder(orderNumber)
+                : productReservationRepository.cancelOrder(orderNumber);
+
+        log.info("Cancelled order {}, restored stock for {} products", orderNumber, restored);
+    }
+
+    @Override
+    @Transactional
     public InventoryResponse update(Long id, InventoryRequest inventoryRequest) {
         log.info("Updating inventory with ID: {}", id);
 
@@ -186,25 +215,37 @@ public class InventoryServiceImpl implements InventoryService {
         log.info("Inventory found for ID: {}", id);
 
         inventory.setLimit(inventoryRequest.limit());
-        inventory.setQuantity(inventoryRequest.quantity());
         inventory.setLimitNotificationSent(false);
 
+        if (stockProperties.isJournal()) {
+            stockJournalService.adjust(id, inventoryRequest.quantity());
+        } else {
+            inventory.setQuantity(inventoryRequest.quantity());
+        }
+
         Inventory savedInventory = inventoryRepository.save(inventory);
 
         log.info("Inventory updated successfully for ID: {}", id);
 
-        return inventoryMapper.map(savedInventory);
+        return inventoryMapper.map(savedInventory, inventoryRequest.quantity());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InventoryResponse> findAll() {
-        return inventoryMapper.map(inventoryRepository.findAll());
+        return stockProperties.isJournal()
+                ? inventoryRepository.findAllJournalResponses()
+                : inventoryRepository.findAllResponses();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public InventoryResponse findBySkuCode(String skuCode) {
-        return inventoryMapper.map(inventoryRepository.findByProductSkuCode(skuCode)
-                .orElseThrow(() -> new RuntimeException("Inventory not found")));
+        Optional<InventoryResponse> response = stockProperties.isJournal()
+                ? inventoryRepository.findJournalResponseBySkuCode(skuCode)
+                : inventoryRepository.findResponseBySkuCode(skuCode);
+
+        return response.orElseThrow(() -> new RuntimeException("Inventory not found"));
     }
 
     private void saveInventory(ProductEvent productEvent) {
@@ -253,34 +294,28 @@ public class InventoryServiceImpl implements InventoryService {
     public void checkInventoryAndNotify() {
         log.info("Checking inventory limits for all products");
 
-        List<Inventory> inventories = inventoryRepository.findAll();
+        List<InventoryRepository.LimitExceeded> exceeded = stockProperties.isJournal()
+                ? inventoryRepository.findJournalLimitExceeded()
+                : inventoryRepository.findLimitExceeded();
 
-        for (Inventory inventory : inventories) {
-            if (inventory.getQuantity() <= inventory.getLimit() && !inventory.isLimitNotificationSent()) {
-                log.warn("Inventory limit exceeded for SKU: {}, Quantity: {}",
-                        inventory.getProduct().getSkuCode(), inventory.getQuantity());
+        for (InventoryRepository.LimitExceeded limitExceeded : exceeded) {
+            log.warn("Inventory limit exceeded for SKU: {}, Quantity: {}",
+                    limitExceeded.getSkuCode(), limitExceeded.getQuantity());
 
-                LimitExceedEvent limitExceedEvent = new LimitExceedEvent();
-                limitExceedEvent.setSkuCode(inventory.getProduct().getSkuCode());
-                limitExceedEvent.setLimit(inventory.getQuantity());
+            LimitExceedEvent limitExceedEvent = new LimitExceedEvent();
+            limitExceedEvent.setSkuCode(limitExceeded.getSkuCode());
+            limitExceedEvent.setLimit(limitExceeded.getQuantity());
 
-                kafkaTemplate.send("inventory-limit-topic", limitExceedEvent);
+            kafkaTemplate.send("inventory-limit-topic", limitExceedEvent);
 
-                log.info("Sent limit exceed event for SKU: {}", inventory.getProduct().getSkuCode());
+            log.info("Sent limit exceed event for SKU: {}", limitExceeded.getSkuCode());
 
-                updateIsNotificationSentFlag(inventory);
-            }
+            inventoryRepository.markLimitNotificationSent(limitExceeded.getId());
         }
     }
 
-    private void updateIsNotificationSentFlag(Inventory inventory) {
-        inventory.setLimitNotificationSent(true);
-
-        inventoryRepository.save(inventory);
-    }
-
     @KafkaListener(topics = {"product-events", "payment-events"}, groupId = "inventory-service-group")
-    public void listen(ConsumerRecord<String, String> record) {
+    public void listen(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
         String topic = record.topic();
         String message = record.value();
 
@@ -289,11 +324,13 @@ public class InventoryServiceImpl implements InventoryService {
         switch (topic) {
             case "product-events":
                 ProductEvent productEvent = deserialize(message, ProductEvent.class);
-                handleProductEvent(productEvent);
+                recordDispatcher.dispatch(record, orderingKey(record, productEvent.skuCode()),
+                        () -> handleProductEvent(productEvent), acknowledgment);
                 break;
             case "payment-events":
                 PaymentEvent paymentEvent = deserialize(message, PaymentEvent.class);
-                handlePaymentEvent(paymentEvent);
+                recordDispatcher.dispatch(record, orderingKey(record, paymentEvent.orderNumber()),
+                        () -> handlePaymentEvent(paymentEvent), acknowledgment);
                 break;
             default:
                 log.error("Unknown topic: {}", topic);
@@ -302,6 +339,10 @@ public class InventoryServiceImpl implements InventoryService {
         }
     }
 
+    private String orderingKey(ConsumerRecord<String, String> record, String fallback) {
+        return record.key() != null ? record.key() : fallback;
+    }
+
     private <T> T deserialize(String json, Class<T> targetType) {
         ObjectMapper objectMapper = new ObjectMapper();
         try {
@@ -333,10 +374,13 @@ public class InventoryServiceImpl implements InventoryService {
     private void handlePaymentEvent(PaymentEvent paymentEvent) {
         log.info("Got Message from payment-events topic {}", paymentEvent);
 
-        if (paymentEvent.status().equals("Success")) {
-            productReservationRepository.deleteAllByOrderNumber(paymentEvent.orderNumber());
-
-            log.info("Deleted reservations for order {}", paymentEvent.orderNumber());
+        switch (paymentEvent.status()) {
+            case "Success": confirmOrder(paymentEvent.orderNumber());
+                break;
+            case "Failed": cancelOrder(paymentEvent.orderNumber());
+                break;
+            default:
+                log.warn("Unknown payment status: {}", paymentEvent.status());
         }
     }
 }
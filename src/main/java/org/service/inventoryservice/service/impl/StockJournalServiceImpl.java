@@ -0,0 +1,132 @@
+package org.service.inventoryservice.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.service.inventoryservice.config.StockProperties;
+import org.service.inventoryservice.entity.StockMovement;
+import org.service.inventoryservice.entity.StockMovementType;
+import org.service.inventoryservice.repository.StockAllotmentRepository;
+import org.service.inventoryservice.repository.StockMovementRepository;
+import org.service.inventoryservice.service.StockJournalService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockJournalServiceImpl implements StockJournalService {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final StockAllotmentRepository stockAllotmentRepository;
+
+    private final StockProperties stockProperties;
+
+    @Override
+    public boolean reserve(Long inventoryId, int quantity, String orderNumber) {
+        if (!draw(inventoryId, quantity)) {
+            return false;
+        }
+
+        record(inventoryId, -quantity, StockMovementType.RESERVATION, orderNumber);
+        return true;
+    }
+
+    @Override
+    public void adjust(Long inventoryId, int quantity) {
+        ensureAllotments(inventoryId);
+
+        int adjustment = quantity - stockAllotmentRepository.adjust(inventoryId, quantity);
+        record(inventoryId, adjustment, StockMovementType.ADJUSTMENT, null);
+    }
+
+    @Override
+    public void record(Long inventoryId, int quantity, StockMovementType type, String orderNumber) {
+        stockMovementRepository.save(StockMovement.builder()
+                .inventoryId(inventoryId)
+                .quantity(quantity)
+                .type(type)
+                .orderNumber(orderNumber)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    public int cancelOrder(String orderNumber) {
+        return stockMovementRepository.cancelOrder(orderNumber, LocalDateTime.now());
+    }
+
+    @Override
+    public List<String> expireReservations(LocalDateTime now) {
+        return stockMovementRepository.expireReservations(now);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${inventory.stock.compaction-interval:10000}")
+    public void compact() {
+        if (!stockProperties.isJournal() || !stockMovementRepository.tryLockForCompaction()) {
+            return;
+        }
+
+        int seeded = stockAllotmentRepository.seedMissing(stockProperties.getAllotments());
+
+        if (seeded > 0) {
+            log.info("Seeded {} stock allotment slots", seeded);
+        }
+
+        Long watermark = stockMovementRepository.findCompactionWatermark(
+                LocalDateTime.now().minus(stockProperties.getCompactionGrace()));
+        int compacted = watermark == null ? 0 : stockMovementRepository.compact(watermark);
+
+        if (compacted > 0) {
+            log.info("Compacted stock movements into {} inventory snapshots", compacted);
+        }
+
+        // Last, so the slot locks are held only until the commit that follows
+        int rebalanced = stockAllotmentRepository.rebalance();
+
+        if (rebalanced > 0) {
+            log.debug("Rebalanced {} stock allotment slots", rebalanced);
+        }
+    }
+
+    /**
+     * Tries a random slot and its neighbour first, which keeps concurrent reservations of one SKU on different rows.
+     * Falls back to draining all slots under their locks when neither covers the quantity, which only happens close
+     * to selling out or before the compactor has rebalanced.
+     */
+    private boolean draw(Long inventoryId, int quantity) {
+        int slots = stockProperties.getAllotments();
+        int first = ThreadLocalRandom.current().nextInt(slots);
+
+        for (int i = 0; i < Math.min(2, slots); i++) {
+            if (stockAllotmentRepository.take(inventoryId, (first + i) % slots, quantity) > 0) {
+                return true;
+            }
+        }
+
+        if (stockAllotmentRepository.drain(inventoryId, quantity) > 0) {
+            return true;
+        }
+
+        return ensureAllotments(inventoryId) && stockAllotmentRepository.drain(inventoryId, quantity) > 0;
+    }
+
+    /**
+     * @return whether the inventory had no allotments before this call
+     */
+    private boolean ensureAllotments(Long inventoryId) {
+        if (stockAllotmentRepository.existsByInventoryId(inventoryId)) {
+            return false;
+        }
+
+        stockAllotmentRepository.seed(inventoryId, stockProperties.getAllotments());
+        return true;
+    }
+}
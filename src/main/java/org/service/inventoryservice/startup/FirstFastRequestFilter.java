@@ -0,0 +1,63 @@
+package org.service.inventoryservice.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.service.inventoryservice.config.WarmupProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the time from JVM start until the first API request that completes under the fast-request threshold.
+ */
+@Component
+@Slf4j
+public class FirstFastRequestFilter extends OncePerRequestFilter {
+
+    private final long thresholdNanos;
+
+    private final AtomicLong timeToFirstFastRequest = new AtomicLong(-1);
+
+    public FirstFastRequestFilter(WarmupProperties properties, MeterRegistry meterRegistry) {
+        this.thresholdNanos = properties.getFastRequestThreshold().toNanos();
+
+        TimeGauge.builder("inventory.startup.first.fast.request", timeToFirstFastRequest, TimeUnit.MILLISECONDS,
+                        AtomicLong::get)
+                .description("Time from JVM start to the first fast API request, -1 until it happens")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (timeToFirstFastRequest.get() >= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        filterChain.doFilter(request, response);
+
+        if (System.nanoTime() - start <= thresholdNanos) {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            if (timeToFirstFastRequest.compareAndSet(-1, uptime)) {
+                log.info("First fast request served {} ms after JVM start", uptime);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+}
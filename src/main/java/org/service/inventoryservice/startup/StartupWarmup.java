@@ -0,0 +1,167 @@
+package org.service.inventoryservice.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.service.inventoryservice.config.StockProperties;
+import org.service.inventoryservice.config.WarmupProperties;
+import org.service.inventoryservice.datasource.DataSourceRouting;
+import org.service.inventoryservice.datasource.ReplicaRoutingDataSource;
+import org.service.inventoryservice.dto.InventoryResponse;
+import org.service.inventoryservice.dto.ProductDto;
+import org.service.inventoryservice.dto.ReserveRequest;
+import org.service.inventoryservice.event.PaymentEvent;
+import org.service.inventoryservice.event.ProductEvent;
+import org.service.inventoryservice.repository.InventoryRepository;
+import org.service.inventoryservice.repository.ProductRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primes the connection pools, the hot JPA queries and the JSON codecs. Runs as an {@link ApplicationRunner},
+ * so the readiness probe only reports UP once it has finished. Queries run in the same kind of transaction as in
+ * the service, so with replica routing the read-only ones warm the replica pools.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String WARMUP_SKU = "__warmup__";
+
+    private final WarmupProperties properties;
+
+    private final StockProperties stockProperties;
+
+    private final DataSource dataSource;
+
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        primeConnectionPools();
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (int i = 0; i < properties.getIterations(); i++) {
+            readWrite.executeWithoutResult(status -> {
+                productRepository.findWithInventoryBySkuCode(WARMUP_SKU);
+                inventoryRepository.findById(-1L);
+            });
+
+            // The read-write block above pins this thread to the primary for the staleness bound; start afresh
+            DataSourceRouting.reset();
+
+            boolean listAll = i < properties.getListIterations();
+            readOnly.executeWithoutResult(status -> {
+                if (stockProperties.isJournal()) {
+                    inventoryRepository.findJournalResponseBySkuCode(WARMUP_SKU);
+                    if (listAll) {
+                        inventoryRepository.findAllJournalResponses();
+                    }
+                } else {
+                    inventoryRepository.findResponseBySkuCode(WARMUP_SKU);
+                    if (listAll) {
+                        inventoryRepository.findAllResponses();
+                    }
+                }
+            });
+
+            primeJsonCodecs();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        TimeGauge.builder("inventory.startup.warmup", () -> elapsed, TimeUnit.NANOSECONDS)
+                .register(meterRegistry);
+
+        log.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Fills the primary and, when routing is enabled, every replica pool; going through the routing proxy would only
+     * ever reach the primary here. An unreachable replica is only logged and then taken out of rotation by the health
+     * check, so routing fails over to the primary instead of failing startup.
+     */
+    private void primeConnectionPools() throws SQLException {
+        ReplicaRoutingDataSource routingDataSource = replicaRoutingDataSource.getIfAvailable();
+        if (routingDataSource == null) {
+            primeConnectionPool(dataSource);
+            return;
+        }
+
+        for (Map.Entry<Object, DataSource> pool : routingDataSource.getResolvedDataSources().entrySet()) {
+            if (ReplicaRoutingDataSource.PRIMARY.equals(pool.getKey())) {
+                primeConnectionPool(pool.getValue());
+                continue;
+            }
+
+            try {
+                primeConnectionPool(pool.getValue());
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Could not warm up connections to {}: {}", pool.getKey(), e.getMessage());
+            }
+        }
+
+        // Replicas start in rotation; probe now so the read-only queries below don't hit one that is down
+        routingDataSource.checkReplicas();
+    }
+
+    private void primeConnectionPool(DataSource pool) throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < properties.getPoolConnections(); i++) {
+                Connection connection = pool.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    private void primeJsonCodecs() throws Exception {
+        ReserveRequest reserveRequest = new ReserveRequest(List.of(new ProductDto("0", WARMUP_SKU, 1)), "0");
+        objectMapper.readValue(objectMapper.writeValueAsString(reserveRequest), ReserveRequest.class);
+
+        objectMapper.writeValueAsString(new InventoryResponse(0L, WARMUP_SKU, WARMUP_SKU, null, 0, 0));
+
+        objectMapper.readValue(objectMapper.writeValueAsString(
+                new ProductEvent("UPDATE", WARMUP_SKU, WARMUP_SKU, null, 0.0, null)), ProductEvent.class);
+        objectMapper.readValue(objectMapper.writeValueAsString(
+                new PaymentEvent("Success", "0", null)), PaymentEvent.class);
+    }
+}
@@ -0,0 +1,290 @@
+package org.service.inventoryservice.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.service.inventoryservice.config.TraceSamplingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a trace is exported once its local root span ends. Child spans are held back until then.
+ * Errors and slow traces are always kept; the rest is sampled at the rate configured for the endpoint or
+ * topic and capped at a number of traces per second. Kept spans are handed to the span handlers set as
+ * {@link #setDelegates delegates} (the Zipkin reporter); ObservabilityConfig makes this the only handler Brave calls
+ * and passes it the others.
+ * <p>
+ * Decisions are remembered for a while so children ending after their root (async work) follow the same decision.
+ * Held spans of roots that never end are evicted by age.
+ */
+@Component
+public class TraceSamplingSpanHandler extends SpanHandler {
+
+    private static final String URI_TAG = "uri";
+
+    private static final String TOPIC_TAG = "messaging.source.name";
+
+    private final TraceSamplingProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private static final Set<String> KEPT = Set.of("error", "slow", "rate");
+
+    private final Map<Long, PendingTrace> pendingTraces = new ConcurrentHashMap<>();
+
+    /**
+     * Recent decisions by local root id in decision order, guarded by its own monitor.
+     */
+    private final LinkedHashMap<Long, Decision> decisions = new LinkedHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Counter evictedTraces;
+
+    private volatile List<SpanHandler> delegates = List.of();
+
+    private long windowStart;
+
+    private int keptInWindow;
+
+    public TraceSamplingSpanHandler(TraceSamplingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.evictedTraces = Counter.builder("inventory.tracing.held.evicted")
+                .description("Traces whose held child spans were evicted before their root ended")
+                .register(meterRegistry);
+    }
+
+    public void setDelegates(List<SpanHandler> delegates) {
+        this.delegates = List.copyOf(delegates);
+    }
+
+    @Override
+    public boolean begin(TraceContext context, MutableSpan span, TraceContext parent) {
+        delegates.forEach(delegate -> delegate.begin(context, span, parent));
+        return true;
+    }
+
+    @Override
+    public boolean handlesAbandoned() {
+        return delegates.stream().anyMatch(SpanHandler::handlesAbandoned);
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            if (context.isLocalRoot()) {
+                pendingTraces.remove(context.localRootId());
+            }
+            forward(context, span, cause);
+            return true;
+        }
+
+        if (!context.isLocalRoot()) {
+            Decision decision = decisionFor(context.localRootId());
+            if (decision != null) {
+                if (decision.keep()) {
+                    forward(context, span, Cause.FINISHED);
+                }
+                return false;
+            }
+
+            hold(context, span);
+            return false;
+        }
+
+        // Already dropped because its children overflowed the pending buffer
+        Decision decided = decisionFor(context.localRootId());
+        if (decided != null) {
+            release(context.localRootId(), decided.keep());
+            if (decided.keep()) {
+                forward(context, span, Cause.FINISHED);
+            }
+            return false;
+        }
+
+        String reason = decide(span);
+        boolean keep = KEPT.contains(reason);
+        count(keep ? "kept" : "dropped", reason);
+
+        remember(context.localRootId(), keep);
+        release(context.localRootId(), keep);
+
+        if (keep) {
+            forward(context, span, Cause.FINISHED);
+        }
+
+        return false;
+    }
+
+    private void hold(TraceContext context, MutableSpan span) {
+        long localRootId = context.localRootId();
+        if (pendingTraces.size() >= properties.getMaxPendingTraces() && !pendingTraces.containsKey(localRootId)) {
+            evictExpiredPending();
+
+            if (pendingTraces.size() >= properties.getMaxPendingTraces()) {
+                // Decided here so the trace is counted once; its root and later children follow the decision
+                if (remember(localRootId, false)) {
+                    count("dropped", "overflow");
+                }
+                return;
+            }
+        }
+
+        PendingTrace pending = pendingTraces.computeIfAbsent(localRootId, id -> new PendingTrace(System.nanoTime()));
+        synchronized (pending.spans()) {
+            if (pending.spans().size() < properties.getMaxSpansPerTrace()) {
+                pending.spans().add(new HeldSpan(context, span));
+            }
+        }
+
+        // The root may have been decided while this span was being added; whoever removes the entry flushes it.
+        Decision decision = decisionFor(localRootId);
+        if (decision != null) {
+            release(localRootId, decision.keep());
+        }
+    }
+
+    private void release(long localRootId, boolean keep) {
+        PendingTrace pending = pendingTraces.remove(localRootId);
+        if (pending != null && keep) {
+            synchronized (pending.spans()) {
+                pending.spans().forEach(child -> forward(child.context(), child.span(), Cause.FINISHED));
+            }
+        }
+    }
+
+    private void evictExpiredPending() {
+        long now = System.nanoTime();
+        long ttl = properties.getPendingTtl().toNanos();
+
+        for (Iterator<PendingTrace> iterator = pendingTraces.values().iterator(); iterator.hasNext(); ) {
+            if (now - iterator.next().createdAt() > ttl) {
+                iterator.remove();
+                evictedTraces.increment();
+            }
+        }
+    }
+
+    /**
+     * @return whether the trace had no live decision yet
+     */
+    private boolean remember(long localRootId, boolean keep) {
+        long now = System.nanoTime();
+        long ttl = properties.getDecisionTtl().toNanos();
+        synchronized (decisions) {
+            Decision previous = decisions.put(localRootId, new Decision(keep, now));
+
+            Iterator<Decision> oldest = decisions.values().iterator();
+            while (oldest.hasNext()) {
+                Decision decision = oldest.next();
+                if (decisions.size() <= properties.getMaxDecisions() && now - decision.decidedAt() <= ttl) {
+                    break;
+                }
+                oldest.remove();
+            }
+
+            return previous == null || now - previous.decidedAt() > ttl;
+        }
+    }
+
+    private Decision decisionFor(long localRootId) {
+        synchronized (decisions) {
+            Decision decision = decisions.get(localRootId);
+            if (decision == null || System.nanoTime() - decision.decidedAt() > properties.getDecisionTtl().toNanos()) {
+                return null;
+            }
+            return decision;
+        }
+    }
+
+    /**
+     * @return why the trace is kept ({@code error}, {@code slow}, {@code rate}) or dropped ({@code sampled},
+     * {@code limited})
+     */
+    private String decide(MutableSpan root) {
+        if (root.error() != null || root.tag("error") != null) {
+            return "error";
+        }
+
+        long durationMicros = root.finishTimestamp() - root.startTimestamp();
+        if (durationMicros > TimeUnit.NANOSECONDS.toMicros(properties.getSlowThreshold().toNanos())) {
+            return "slow";
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() >= rateFor(root)) {
+            return "sampled";
+        }
+
+        return tryAcquire() ? "rate" : "limited";
+    }
+
+    private double rateFor(MutableSpan root) {
+        String uri = root.tag(URI_TAG);
+        if (uri != null && properties.getEndpoints().containsKey(uri)) {
+            return properties.getEndpoints().get(uri);
+        }
+
+        String topic = root.tag(TOPIC_TAG);
+        if (topic != null && properties.getTopics().containsKey(topic)) {
+            return properties.getTopics().get(topic);
+        }
+
+        return properties.getDefaultRate();
+    }
+
+    private synchronized boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= 1000) {
+            windowStart = now;
+            keptInWindow = 0;
+        }
+
+        if (keptInWindow >= properties.getMaxTracesPerSecond()) {
+            return false;
+        }
+
+        keptInWindow++;
+        return true;
+    }
+
+    private void forward(TraceContext context, MutableSpan span, Cause cause) {
+        for (SpanHandler delegate : delegates) {
+            if (!delegate.end(context, span, cause)) {
+                break;
+            }
+        }
+    }
+
+    private void count(String decision, String reason) {
+        counters.computeIfAbsent(decision + ":" + reason, key -> Counter.builder("inventory.tracing.traces")
+                        .tag("decision", decision)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private record HeldSpan(TraceContext context, MutableSpan span) {
+    }
+
+    private record PendingTrace(long createdAt, List<HeldSpan> spans) {
+
+        private PendingTrace(long createdAt) {
+            this(createdAt, new ArrayList<>());
+        }
+    }
+
+    private record Decision(boolean keep, long decidedAt) {
+    }
+}
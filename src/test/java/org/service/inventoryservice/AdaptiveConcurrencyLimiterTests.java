@@ -0,0 +1,153 @@
+package org.service.inventoryservice;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.service.inventoryservice.config.ConcurrencyLimiterProperties;
+import org.service.inventoryservice.limiter.AdaptiveConcurrencyLimiter;
+import org.service.inventoryservice.limiter.AdaptiveConcurrencyLimiter.Permit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private final ConcurrencyLimiterProperties properties = new ConcurrencyLimiterProperties();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setup() {
+        properties.setInitialLimit(4);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(10);
+        properties.setPerSkuShare(0.5);
+        properties.setMaxQueueSize(4);
+        properties.setMaxQueueWait(Duration.ofMillis(20));
+        properties.setLatencyThreshold(Duration.ofSeconds(10));
+
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void skuCannotHoldMoreThanItsShareOfTheLimit() throws Exception {
+        assertNotNull(limiter.tryAcquire(List.of("hot")));
+        assertNotNull(limiter.tryAcquire(List.of("hot")));
+
+        assertNull(limiter.tryAcquire(List.of("hot")));
+        assertNotNull(limiter.tryAcquire(List.of("cold")));
+    }
+
+    @Test
+    void hotSkuCannotFillTheQueue() throws Exception {
+        properties.setMaxLimit(4);
+        properties.setMaxQueueWait(Duration.ofSeconds(5));
+        limiter.tryAcquire(List.of("hot"));
+        limiter.tryAcquire(List.of("hot"));
+        Permit other = limiter.tryAcquire(List.of("a"));
+        limiter.tryAcquire(List.of("b"));
+
+        List<Future<Permit>> waiting = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            waiting.add(executor.submit(() -> limiter.tryAcquire(List.of("hot"))));
+        }
+        waitUntilQueued(2);
+
+        long start = System.nanoTime();
+        assertNull(limiter.tryAcquire(List.of("hot")));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "shed without waiting");
+
+        Future<Permit> cold = executor.submit(() -> limiter.tryAcquire(List.of("cold")));
+        waitUntilQueued(3);
+        limiter.release(other);
+
+        assertNotNull(cold.get(1, TimeUnit.SECONDS));
+        assertEquals(2, limiter.getQueued());
+        waiting.forEach(future -> future.cancel(true));
+    }
+
+    @Test
+    void requestIsShedWhenQueueIsFull() throws Exception {
+        properties.setMaxQueueSize(1);
+        properties.setMaxQueueWait(Duration.ofSeconds(5));
+        for (String skuCode : List.of("a", "b", "c", "d")) {
+            limiter.tryAcquire(List.of(skuCode));
+        }
+
+        Future<Permit> waiting = executor.submit(() -> limiter.tryAcquire(List.of("e")));
+        waitUntilQueued(1);
+
+        assertNull(limiter.tryAcquire(List.of("f")));
+        waiting.cancel(true);
+    }
+
+    @Test
+    void requestIsShedAfterMaxQueueWait() throws Exception {
+        for (String skuCode : List.of("a", "b", "c", "d")) {
+            limiter.tryAcquire(List.of(skuCode));
+        }
+
+        long start = System.nanoTime();
+        assertNull(limiter.tryAcquire(List.of("e")));
+        assertTrue(System.nanoTime() - start >= properties.getMaxQueueWait().toNanos());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void limitGrowsAdditivelyWhileBusyAndFast() throws Exception {
+        Permit first = limiter.tryAcquire(List.of("a"));
+        Permit second = limiter.tryAcquire(List.of("b"));
+
+        limiter.release(second);
+        assertEquals(5, limiter.getLimit());
+
+        // Only one of five permits was in use when it started, so the limiter wasn't the bottleneck
+        limiter.release(first);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksMultiplicativelyOnSlowRequestsDownToMinimum() throws Exception {
+        properties.setLatencyThreshold(Duration.ZERO);
+
+        limiter.release(slowPermit());
+        assertEquals(3, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.release(slowPermit());
+        }
+        assertEquals(properties.getMinLimit(), limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private Permit slowPermit() throws Exception {
+        Permit permit = limiter.tryAcquire(List.of("a"));
+        Thread.sleep(1);
+        return permit;
+    }
+
+    private void waitUntilQueued(int queued) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getQueued() < queued) {
+            assertTrue(System.nanoTime() < deadline, "requests did not queue within 5 s");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.service.inventoryservice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.service.inventoryservice.dto.ProductDto;
+import org.service.inventoryservice.dto.ReserveRequest;
+import org.service.inventoryservice.entity.Inventory;
+import org.service.inventoryservice.entity.Product;
+import org.service.inventoryservice.repository.InventoryRepository;
+import org.service.inventoryservice.service.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.service.inventoryservice.StatementCounter",
+        "inventory.warmup.enabled=false"
+})
+class InventoryQueryCountTests {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    private String skuCode;
+
+    @BeforeEach
+    void setup() {
+        skuCode = createProduct(1000);
+    }
+
+    @Test
+    void reservationQueryCountDoesNotGrowWithOpenHolds() {
+        long firstReservation = countStatements(() -> reserve("order-0"));
+
+        for (int i = 1; i <= 50; i++) {
+            reserve("order-" + i);
+        }
+
+        long laterReservation = countStatements(() -> reserve("order-51"));
+
+        assertEquals(firstReservation, laterReservation);
+        assertTrue(laterReservation <= 3, "select product and inventory, update inventory, insert reservation");
+    }
+
+    @Test
+    void findAllUsesSingleQuery() {
+        for (int i = 0; i < 10; i++) {
+            createProduct(10);
+        }
+
+        assertEquals(1, countStatements(() -> inventoryService.findAll()));
+    }
+
+    @Test
+    void findBySkuCodeUsesSingleQuery() {
+        reserve("order-0");
+
+        assertEquals(1, countStatements(() -> inventoryService.findBySkuCode(skuCode)));
+    }
+
+    private void reserve(String orderNumber) {
+        assertTrue(inventoryService.reserveInventory(
+                new ReserveRequest(List.of(new ProductDto(orderNumber, skuCode, 1)), orderNumber)));
+    }
+
+    private long countStatements(Runnable action) {
+        return StatementCounter.count(action);
+    }
+
+    private String createProduct(int quantity) {
+        Product product = new Product();
+        product.setName("product");
+        product.setSkuCode(UUID.randomUUID().toString());
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setQuantity(quantity);
+        inventory.setLimit(0);
+        product.setInventory(inventory);
+
+        inventoryRepository.save(inventory);
+
+        return product.getSkuCode();
+    }
+}
@@ -0,0 +1,240 @@
+package org.service.inventoryservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.service.inventoryservice.config.KafkaConsumerProperties;
+import org.service.inventoryservice.kafka.KeyOrderedRecordDispatcher;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeyOrderedRecordDispatcherTests {
+
+    private static final String TOPIC = "payment-events";
+
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+
+    private final KafkaConsumerProperties properties = new KafkaConsumerProperties();
+
+    private ConsumerRecordRecoverer recoverer = (record, exception) -> {
+    };
+
+    private KeyOrderedRecordDispatcher dispatcher;
+
+    @BeforeEach
+    void setup() {
+        properties.setEnabled(true);
+        properties.setDefaultConcurrency(4);
+        properties.setRetryAttempts(2);
+        properties.setRetryBackoff(Duration.ofMillis(10));
+        properties.setRetryMaxBackoff(Duration.ofMillis(50));
+        properties.setRevokeTimeout(Duration.ofSeconds(5));
+
+        when(container.getAssignedPartitions()).thenReturn(List.of(PARTITION));
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void recordsWithSameKeyCompleteInOffsetOrder() throws Exception {
+        dispatcher = createDispatcher();
+        Map<String, List<Long>> processed = new ConcurrentHashMap<>();
+        CountDownLatch acknowledged = new CountDownLatch(200);
+
+        for (long offset = 0; offset < 200; offset++) {
+            String key = "order-" + offset % 7;
+            long current = offset;
+            dispatcher.dispatch(record(offset), key, () -> {
+                sleepUpTo(2);
+                processed.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(current);
+            }, acknowledged::countDown);
+        }
+
+        assertTrue(acknowledged.await(10, TimeUnit.SECONDS));
+        processed.values().forEach(offsets -> assertEquals(offsets.stream().sorted().toList(), offsets));
+    }
+
+    @Test
+    void commitLagCountsCompletedRecordsBehindPendingOffset() throws Exception {
+        dispatcher = createDispatcher();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch acknowledged = new CountDownLatch(4);
+
+        dispatcher.dispatch(record(0), "slow", () -> await(release), acknowledged::countDown);
+        for (long offset = 1; offset <= 3; offset++) {
+            dispatcher.dispatch(record(offset), "fast", () -> {
+            }, acknowledged::countDown);
+        }
+
+        waitUntil(() -> commitLag() == 3);
+
+        release.countDown();
+
+        assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        waitUntil(() -> commitLag() == 0);
+    }
+
+    @Test
+    void failedRecordIsDeadLetteredAndAcknowledged() throws Exception {
+        List<ConsumerRecord<?, ?>> deadLettered = Collections.synchronizedList(new ArrayList<>());
+        recoverer = (record, exception) -> deadLettered.add(record);
+        dispatcher = createDispatcher();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch acknowledged = new CountDownLatch(1);
+
+        dispatcher.dispatch(record(0), "key", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }, acknowledged::countDown);
+
+        assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        assertEquals(1, deadLettered.size());
+        assertEquals(1, failedRecords("dead_lettered"));
+    }
+
+    @Test
+    void deadLetterFailurePausesPartitionUntilPublished() throws Exception {
+        AtomicInteger publishAttempts = new AtomicInteger();
+        recoverer = (record, exception) -> {
+            if (publishAttempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("dead-letter topic unavailable");
+            }
+        };
+        dispatcher = createDispatcher();
+        CountDownLatch acknowledged = new CountDownLatch(1);
+
+        dispatcher.dispatch(record(0), "key", () -> {
+            throw new IllegalStateException("boom");
+        }, acknowledged::countDown);
+
+        assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        assertEquals(3, publishAttempts.get());
+        verify(container).pausePartition(PARTITION);
+        verify(container, timeout(1000)).resumePartition(PARTITION);
+    }
+
+    @Test
+    void revocationStopsDeadLetterRetries() throws Exception {
+        CountDownLatch publishFailed = new CountDownLatch(1);
+        recoverer = (record, exception) -> {
+            publishFailed.countDown();
+            throw new IllegalStateException("dead-letter topic unavailable");
+        };
+        properties.setRetryMaxBackoff(Duration.ofMinutes(1));
+        dispatcher = createDispatcher();
+        AtomicInteger acknowledged = new AtomicInteger();
+
+        dispatcher.dispatch(record(0), "key", () -> {
+            throw new IllegalStateException("boom");
+        }, acknowledged::incrementAndGet);
+        assertTrue(publishFailed.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        dispatcher.onPartitionsRevokedBeforeCommit(null, List.of(PARTITION));
+
+        assertTrue(System.nanoTime() - start < properties.getRevokeTimeout().toNanos());
+        assertEquals(0, acknowledged.get());
+        verify(container, timeout(1000)).resumePartition(PARTITION);
+        waitUntil(() -> failedRecords("unrecovered") == 1);
+    }
+
+    @Test
+    void rejectedDispatchReleasesItsSlot() {
+        dispatcher = createDispatcher();
+        dispatcher.dispatch(record(0), "key", () -> {
+        }, () -> {
+        });
+        dispatcher.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.dispatch(record(1), "key", () -> {
+        }, () -> {
+        }));
+
+        waitUntil(() -> meterRegistry.get("inventory.kafka.records.inflight").gauge().value() == 0);
+        assertEquals(0, commitLag());
+    }
+
+    private KeyOrderedRecordDispatcher createDispatcher() {
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+
+        return new KeyOrderedRecordDispatcher(properties, meterRegistry, recoverer,
+                new StaticListableBeanFactory(Map.of("registry", registry))
+                        .getBeanProvider(KafkaListenerEndpointRegistry.class));
+    }
+
+    private ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>(TOPIC, PARTITION.partition(), offset, null, "{}");
+    }
+
+    private double commitLag() {
+        return meterRegistry.get("inventory.kafka.commit.lag").gauge().value();
+    }
+
+    private double failedRecords(String outcome) {
+        return meterRegistry.find("inventory.kafka.records.failed").tag("outcome", outcome).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepUpTo(int millis) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(millis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 s");
+            sleepUpTo(10);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.service.inventoryservice;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.service.inventoryservice.datasource.DataSourceRouting;
+import org.service.inventoryservice.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingTests {
+
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16").withDatabaseName("primary");
+
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16").withDatabaseName("replica");
+
+    static {
+        primary.start();
+        replica.start();
+    }
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("inventory.datasource.routing.enabled", () -> "true");
+        registry.add("inventory.datasource.routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("inventory.datasource.routing.replicas[0].username", replica::getUsername);
+        registry.add("inventory.datasource.routing.replicas[0].password", replica::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Test
+    @Order(1)
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        DataSourceRouting.reset();
+
+        assertEquals("replica", currentDatabase(true));
+        assertEquals("primary", currentDatabase(false));
+        assertEquals("primary", DataSourceRouting.onPrimary(() -> currentDatabase(true)));
+    }
+
+    @Test
+    @Order(2)
+    void shouldReadOwnWritesFromPrimary() {
+        DataSourceRouting.reset();
+        currentDatabase(false);
+
+        assertEquals("primary", currentDatabase(true));
+
+        DataSourceRouting.reset();
+
+        assertEquals("replica", currentDatabase(true));
+    }
+
+    @Test
+    @Order(3)
+    void shouldNotTreatNonTransactionalReadsAsWrites() {
+        DataSourceRouting.reset();
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+
+        assertEquals("replica", currentDatabase(true));
+    }
+
+    @Test
+    @Order(4)
+    void shouldFailOverToPrimaryWhenReplicaIsDown() {
+        replica.stop();
+        replicaRoutingDataSource.checkReplicas();
+
+        assertEquals("primary", currentDatabase(true));
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+}
@@ -0,0 +1,217 @@
+package org.service.inventoryservice;
+
+import org.junit.jupiter.api.Test;
+import org.service.inventoryservice.dto.InventoryRequest;
+import org.service.inventoryservice.dto.ProductDto;
+import org.service.inventoryservice.dto.ReserveRequest;
+import org.service.inventoryservice.entity.Inventory;
+import org.service.inventoryservice.entity.Product;
+import org.service.inventoryservice.entity.StockAllotment;
+import org.service.inventoryservice.entity.StockMovement;
+import org.service.inventoryservice.entity.StockMovementType;
+import org.service.inventoryservice.repository.InventoryRepository;
+import org.service.inventoryservice.repository.StockAllotmentRepository;
+import org.service.inventoryservice.repository.StockMovementRepository;
+import org.service.inventoryservice.service.InventoryService;
+import org.service.inventoryservice.service.StockJournalService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = {
+        "inventory.stock.mode=journal",
+        "inventory.stock.compaction-interval=3600000",
+        "inventory.stock.compaction-grace=0s",
+        "inventory.warmup.enabled=false"
+})
+class StockJournalTests {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockJournalService stockJournalService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockAllotmentRepository stockAllotmentRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Inventory inventory = createProduct(100);
+        String skuCode = inventory.getProduct().getSkuCode();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> reservations = new ArrayList<>();
+        for (int i = 0; i < 160; i++) {
+            String orderNumber = UUID.randomUUID().toString();
+            reservations.add(executor.submit(() -> reserve(orderNumber, skuCode, 1)));
+        }
+
+        int reserved = 0;
+        for (Future<Boolean> reservation : reservations) {
+            reserved += reservation.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(100, reserved);
+        assertEquals(0, allotted(inventory.getId()));
+        assertEquals(0, inventoryService.findBySkuCode(skuCode).quantity());
+    }
+
+    @Test
+    void reservationDrawsAcrossSlotsWhenNoSingleSlotCoversIt() {
+        Inventory inventory = createProduct(0);
+        String skuCode = inventory.getProduct().getSkuCode();
+        inventoryService.update(inventory.getId(), new InventoryRequest(0, 8));
+
+        assertTrue(reserve(UUID.randomUUID().toString(), skuCode, 5));
+        assertFalse(reserve(UUID.randomUUID().toString(), skuCode, 4));
+        assertEquals(3, allotted(inventory.getId()));
+        assertEquals(3, inventoryService.findBySkuCode(skuCode).quantity());
+    }
+
+    @Test
+    void adjustmentRecordsDifferenceToCurrentStock() {
+        Inventory inventory = createProduct(10);
+        String skuCode = inventory.getProduct().getSkuCode();
+        reserve(UUID.randomUUID().toString(), skuCode, 4);
+
+        inventoryService.update(inventory.getId(), new InventoryRequest(0, 20));
+
+        assertEquals(20, allotted(inventory.getId()));
+        assertEquals(20, inventoryService.findBySkuCode(skuCode).quantity());
+        assertEquals(List.of(-4, 14), movements(inventory.getId()).stream().map(StockMovement::getQuantity).toList());
+    }
+
+    @Test
+    void cancellationRestoresStockOnce() {
+        Inventory inventory = createProduct(10);
+        String skuCode = inventory.getProduct().getSkuCode();
+        String orderNumber = UUID.randomUUID().toString();
+        reserve(orderNumber, skuCode, 3);
+
+        inventoryService.cancelOrder(orderNumber);
+        inventoryService.cancelOrder(orderNumber);
+
+        assertEquals(10, allotted(inventory.getId()));
+        assertEquals(10, inventoryService.findBySkuCode(skuCode).quantity());
+        assertEquals(List.of(StockMovementType.RESERVATION, StockMovementType.CANCELLATION),
+                movements(inventory.getId()).stream().map(StockMovement::getType).toList());
+    }
+
+    @Test
+    void expiryReleasesOnlyExpiredReservations() {
+        Inventory inventory = createProduct(10);
+        String skuCode = inventory.getProduct().getSkuCode();
+        String expired = UUID.randomUUID().toString();
+        reserve(expired, skuCode, 2);
+        reserve(UUID.randomUUID().toString(), skuCode, 3);
+        jdbcTemplate.update("UPDATE product_reservation SET reservation_until_date = ? WHERE order_number = ?",
+                LocalDateTime.now().minusMinutes(1), expired);
+
+        List<String> released = stockJournalService.expireReservations(LocalDateTime.now());
+
+        assertEquals(List.of(expired), released);
+        assertEquals(7, allotted(inventory.getId()));
+        assertEquals(7, inventoryService.findBySkuCode(skuCode).quantity());
+    }
+
+    @Test
+    void compactionFoldsTailIntoSnapshot() {
+        Inventory inventory = createProduct(10);
+        String skuCode = inventory.getProduct().getSkuCode();
+        reserve(UUID.randomUUID().toString(), skuCode, 3);
+        reserve(UUID.randomUUID().toString(), skuCode, 2);
+
+        stockJournalService.compact();
+
+        Inventory compacted = inventoryRepository.findById(inventory.getId()).orElseThrow();
+        assertEquals(5, compacted.getQuantity());
+        assertEquals(movements(inventory.getId()).get(1).getId(), compacted.getJournalPosition());
+        assertEquals(5, inventoryService.findBySkuCode(skuCode).quantity());
+        assertEquals(5, allotted(inventory.getId()));
+    }
+
+    @Test
+    void compactionDoesNotFailConcurrentInventoryUpdate() {
+        Inventory inventory = createProduct(10);
+        reserve(UUID.randomUUID().toString(), inventory.getProduct().getSkuCode(), 3);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Inventory loaded = inventoryRepository.findById(inventory.getId()).orElseThrow();
+
+            CompletableFuture.runAsync(stockJournalService::compact).join();
+
+            loaded.setLimit(5);
+            inventoryRepository.flush();
+        });
+
+        Inventory updated = inventoryRepository.findById(inventory.getId()).orElseThrow();
+        assertEquals(5, updated.getLimit());
+        assertEquals(7, updated.getQuantity());
+        assertEquals(movements(inventory.getId()).get(0).getId(), updated.getJournalPosition());
+    }
+
+    private boolean reserve(String orderNumber, String skuCode, int quantity) {
+        return inventoryService.reserveInventory(
+                new ReserveRequest(List.of(new ProductDto(orderNumber, skuCode, quantity)), orderNumber));
+    }
+
+    private int allotted(Long inventoryId) {
+        return stockAllotmentRepository.findAll().stream()
+                .filter(allotment -> allotment.getInventoryId().equals(inventoryId))
+                .mapToInt(StockAllotment::getQuantity)
+                .sum();
+    }
+
+    private List<StockMovement> movements(Long inventoryId) {
+        return stockMovementRepository.findAll().stream()
+                .filter(movement -> movement.getInventoryId().equals(inventoryId))
+                .sorted(Comparator.comparing(StockMovement::getId))
+                .toList();
+    }
+
+    private Inventory createProduct(int quantity) {
+        Product product = new Product();
+        product.setName("product");
+        product.setSkuCode(UUID.randomUUID().toString());
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setQuantity(quantity);
+        inventory.setLimit(0);
+        product.setInventory(inventory);
+
+        return inventoryRepository.save(inventory);
+    }
+}
@@ -0,0 +1,115 @@
+package org.service.inventoryservice;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.service.inventoryservice.config.TraceSamplingProperties;
+import org.service.inventoryservice.tracing.TraceSamplingSpanHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceSamplingSpanHandlerTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TraceSamplingProperties properties = new TraceSamplingProperties();
+
+    private final List<String> exported = Collections.synchronizedList(new ArrayList<>());
+
+    private Tracing tracing;
+
+    private Tracer tracer;
+
+    @BeforeEach
+    void setup() {
+        properties.setDefaultRate(1.0);
+        properties.setMaxTracesPerSecond(1000);
+
+        TraceSamplingSpanHandler handler = new TraceSamplingSpanHandler(properties, meterRegistry);
+        handler.setDelegates(List.of(new SpanHandler() {
+            @Override
+            public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                exported.add(span.name());
+                return true;
+            }
+        }));
+
+        tracing = Tracing.newBuilder().addSpanHandler(handler).build();
+        tracer = tracing.tracer();
+    }
+
+    @AfterEach
+    void close() {
+        tracing.close();
+    }
+
+    @Test
+    void keptTraceExportsHeldChildrenWithRoot() {
+        Span root = tracer.newTrace().name("root").start();
+        tracer.newChild(root.context()).name("child").start().finish();
+
+        assertTrue(exported.isEmpty());
+
+        root.finish();
+
+        assertEquals(List.of("child", "root"), exported);
+        assertEquals(1, traces("kept", "rate"));
+    }
+
+    @Test
+    void droppedTraceExportsNothing() {
+        properties.setDefaultRate(0.0);
+
+        Span root = tracer.newTrace().name("root").start();
+        tracer.newChild(root.context()).name("child").start().finish();
+        root.finish();
+
+        assertTrue(exported.isEmpty());
+        assertEquals(1, traces("dropped", "sampled"));
+    }
+
+    @Test
+    void overflowIsCountedOncePerTrace() {
+        properties.setMaxPendingTraces(1);
+
+        Span held = tracer.newTrace().name("held").start();
+        tracer.newChild(held.context()).name("held-child").start().finish();
+
+        Span overflowed = tracer.newTrace().name("overflowed").start();
+        for (int i = 0; i < 3; i++) {
+            tracer.newChild(overflowed.context()).name("overflowed-child").start().finish();
+        }
+        overflowed.finish();
+
+        assertEquals(1, traces("dropped", "overflow"));
+        assertEquals(1, meterRegistry.get("inventory.tracing.traces").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum());
+        assertTrue(exported.isEmpty());
+
+        held.finish();
+
+        assertEquals(List.of("held-child", "held"), exported);
+    }
+
+    private double traces(String decision, String reason) {
+        return meterRegistry.get("inventory.tracing.traces")
+                .tag("decision", decision)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}